@@ -0,0 +1,75 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.kie.api.runtime.rule.Match;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insertion of a fact in an executor whose rules are all equalities on the same field, with the alpha nodes hashed
+ * or, to reproduce the cost of evaluating them one by one, with the hashing disabled. With the hashing the time
+ * should stay roughly flat as the number of rules grows, while without it grows linearly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlphaHashingBenchmark {
+
+    @Param({"10", "100", "1000", "8000"})
+    private int ruleCount;
+
+    @Param({"true", "false"})
+    private boolean hashed;
+
+    private RulesSetGenerator generator;
+    private String rulesSet;
+    private RulesExecutor rulesExecutor;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        // read by drools when the KieBase is created, each combination of parameters runs in its own fork
+        System.setProperty("drools.alphaNodeHashingThreshold", hashed ? "3" : "0");
+        generator = new RulesSetGenerator(ruleCount, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        rulesSet = generator.coreRulesSet(RuleFormat.JSON);
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        rulesExecutor = RulesExecutor.createRulesExecutor( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, rulesSet) );
+        counter = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        rulesExecutor.dispose();
+    }
+
+    /**
+     * Fires the rules at each insertion, because drools only propagates the insertions through the alpha network
+     * when the rules are fired
+     */
+    @Benchmark
+    public List<Match> insert() {
+        return rulesExecutor.process( generator.fact(counter++ % ruleCount) );
+    }
+}
@@ -0,0 +1,72 @@
+package org.drools.yaml.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares 2 JMH json result files, typically the ones of the previous and of the current release, and reports
+ * the benchmarks that got slower by more than a given percentage (10% by default). Exits with status 1 if any.
+ * <pre>java -cp target/benchmarks.jar org.drools.yaml.benchmarks.BenchmarkComparison baseline.json current.json [threshold%]</pre>
+ */
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> baseline = readResults(new File(args[0]));
+        Map<String, JsonNode> current = readResults(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("NEW        %s%n", entry.getKey());
+                continue;
+            }
+            double oldScore = previous.at("/primaryMetric/score").asDouble();
+            double newScore = entry.getValue().at("/primaryMetric/score").asDouble();
+            // for throughput a higher score is better, for all the other modes it is a time so the lower the better
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().get("mode").asText());
+            double change = (newScore - oldScore) / oldScore * 100.0;
+            double worsening = higherIsBetter ? -change : change;
+            boolean regressed = worsening > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s: %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "REGRESSION" : "OK",
+                    entry.getKey(), oldScore, newScore, entry.getValue().at("/primaryMetric/scoreUnit").asText(), change);
+        }
+
+        System.out.printf("%d regressions over %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> readResults(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    // a benchmark is identified by its name together with its parameters
+    private static String key(JsonNode result) {
+        Map<String, String> params = new TreeMap<>();
+        if (result.has("params")) {
+            result.get("params").fields().forEachRemaining(e -> params.put(e.getKey(), e.getValue().asText()));
+        }
+        return result.get("benchmark").asText() + (params.isEmpty() ? "" : params.toString());
+    }
+}
@@ -0,0 +1,51 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.SessionGenerator;
+import org.drools.yaml.core.domain.RulesSet;
+import org.kie.api.KieBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compilation of a rules set into a KieBase. This bypasses the KieBase cache, so each invocation is a cold compilation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompileBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int ruleCount;
+
+    @Param({"NONE", "ALL", "ANY", "ANY_ALL"})
+    private RulesSetGenerator.Nesting nesting;
+
+    private RulesSet rulesSet;
+
+    @Setup
+    public void setup() {
+        String json = new RulesSetGenerator(ruleCount, nesting, RulesSetGenerator.FactShape.NESTED).coreRulesSet(RuleFormat.JSON);
+        rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, json);
+    }
+
+    @Benchmark
+    public KieBase build() {
+        return new SessionGenerator(rulesSet).build();
+    }
+}
@@ -0,0 +1,101 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.ExecutorOptions;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.drools.yaml.core.domain.Rule;
+import org.drools.yaml.core.domain.RulesSet;
+import org.drools.yaml.core.domain.actions.RuleAction;
+import org.drools.yaml.core.domain.actions.RunPlaybook;
+import org.drools.yaml.core.domain.conditions.Condition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replacement of a rule of an executor holding some facts, modifying its rules in place and, as a baseline,
+ * recreating the executor with the modified rules set and inserting its facts again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EditRuleBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    private int ruleCount;
+
+    @Param({"1000"})
+    private int factCount;
+
+    private RulesSetGenerator generator;
+
+    private RulesSet rulesSet;
+
+    private RulesExecutor rulesExecutor;
+
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        generator = new RulesSetGenerator(ruleCount, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, generator.coreRulesSet(RuleFormat.JSON));
+        rulesExecutor = createWithFacts(rulesSet);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        rulesExecutor.dispose();
+    }
+
+    private RulesExecutor createWithFacts(RulesSet rulesSet) {
+        RulesExecutor executor = RulesExecutor.createRulesExecutor(rulesSet, ExecutorOptions.DEFAULT.withEditableRules());
+        for (int i = 0; i < factCount; i++) {
+            executor.execute(generator.fact(i % ruleCount));
+        }
+        return executor;
+    }
+
+    // the first rule, matching the facts with a different value at each edit
+    private Rule editedRule() {
+        RunPlaybook playbook = new RunPlaybook();
+        playbook.setName("playbook0.yml");
+        RuleAction action = new RuleAction();
+        action.setRun_playbook(List.of(playbook));
+        Rule rule = new Rule();
+        rule.setName("R0");
+        rule.setCondition(new Condition(RulesSetGenerator.FactShape.NESTED.field("i") + " == " + (edits++ % ruleCount)));
+        rule.setAction(action);
+        return rule;
+    }
+
+    @Benchmark
+    public RulesExecutor replaceRule() {
+        rulesExecutor.addRule(editedRule());
+        return rulesExecutor;
+    }
+
+    @Benchmark
+    public RulesExecutor recreateExecutor() {
+        rulesSet.getHost_rules().set(0, editedRule());
+        rulesExecutor.dispose();
+        rulesExecutor = createWithFacts(rulesSet);
+        return rulesExecutor;
+    }
+}
@@ -0,0 +1,124 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Insertion of facts into an executor and evaluation of the rules against them. Each invocation sends the same
+ * working set of facts to a new executor, and then to an empty session, so the rules joining many facts are always
+ * measured against the same number of them. The executor kept for the whole trial holds the compiled rules in the
+ * cache, so creating the others doesn't compile them again.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorBenchmark {
+
+    private static final int WORKING_SET = 1024;
+
+    @Param({"10", "100", "1000"})
+    private int ruleCount;
+
+    @Param({"NONE", "ALL", "ANY_ALL"})
+    private RulesSetGenerator.Nesting nesting;
+
+    @Param({"FLAT", "NESTED", "DEEP"})
+    private RulesSetGenerator.FactShape factShape;
+
+    private String rules;
+    private List<Map<String, Object>> factMaps;
+    private String[] factJsons;
+
+    private RulesExecutor cacheHolder;
+    private RulesExecutor rulesExecutor;
+
+    @Setup
+    public void setup() {
+        RulesSetGenerator generator = new RulesSetGenerator(ruleCount, nesting, factShape);
+        rules = generator.coreRulesSet(RuleFormat.JSON);
+        factMaps = new ArrayList<>(WORKING_SET);
+        factJsons = new String[WORKING_SET];
+        for (int i = 0; i < WORKING_SET; i++) {
+            factMaps.add(generator.fact(i % ruleCount));
+            factJsons[i] = generator.factJson(i % ruleCount);
+        }
+        cacheHolder = createExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheHolder.dispose();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetExecutor() {
+        rulesExecutor = createExecutor();
+    }
+
+    @TearDown(Level.Invocation)
+    public void disposeExecutor() {
+        rulesExecutor.dispose();
+    }
+
+    private RulesExecutor createExecutor() {
+        return RulesExecutor.createRulesExecutor( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, rules) );
+    }
+
+    /**
+     * The insertion of a fact already decoded, without evaluating the rules
+     */
+    @Benchmark
+    @OperationsPerInvocation(WORKING_SET)
+    public void processFact(Blackhole bh) {
+        for (Map<String, Object> factMap : factMaps) {
+            rulesExecutor.processFact( factMap );
+        }
+        bh.consume( rulesExecutor.factsCount() );
+    }
+
+    /**
+     * The process request of a fact already decoded: its conversion, its insertion and the evaluation of the rules
+     */
+    @Benchmark
+    @OperationsPerInvocation(WORKING_SET)
+    public void processMap(Blackhole bh) {
+        for (Map<String, Object> factMap : factMaps) {
+            bh.consume( rulesExecutor.process( factMap ) );
+        }
+    }
+
+    /**
+     * The whole process request: decoding the json fact, inserting it and firing the rules only registering the matches
+     */
+    @Benchmark
+    @OperationsPerInvocation(WORKING_SET)
+    public void process(Blackhole bh) {
+        for (String factJson : factJsons) {
+            bh.consume( rulesExecutor.process( factJson ) );
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.drools.yaml.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import org.drools.yaml.core.ExecutorOptions;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+
+/**
+ * Measures the heap retained by the content index of the facts, comparing the heap used by an executor holding
+ * a given number of facts before and after the index is built.
+ * <pre>java -cp target/benchmarks.jar org.drools.yaml.benchmarks.FactIndexFootprint [factsCount]</pre>
+ */
+public class FactIndexFootprint {
+
+    public static void main(String[] args) {
+        int factsCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        RulesSetGenerator generator = new RulesSetGenerator(10, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        // these rules only match single facts, so by default their executors wouldn't keep any fact to be indexed
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, generator.coreRulesSet(RuleFormat.JSON)),
+                ExecutorOptions.DEFAULT.withStateless(false) );
+
+        long beforeFacts = usedHeap();
+        for (int i = 0; i < factsCount; i++) {
+            rulesExecutor.process( generator.fact(i) );
+        }
+        long withFacts = usedHeap();
+        rulesExecutor.retract("{ \"missing\": true }");
+        long withIndex = usedHeap();
+
+        System.out.printf("facts: %d%n", factsCount);
+        System.out.printf("working memory: %d bytes/fact%n", (withFacts - beforeFacts) / factsCount);
+        System.out.printf("content index: %d bytes/fact%n", (withIndex - withFacts) / factsCount);
+
+        rulesExecutor.dispose();
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,78 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.KieBaseCache;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.kie.api.runtime.rule.Match;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to the first match of a rulebook, from the request creating its executor to the result of the first fact
+ * processed by it, when the rulebook is compiled on demand and when it has been compiled at startup.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FirstMatchBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int ruleCount;
+
+    @Param({"false", "true"})
+    private boolean precompiled;
+
+    private String json;
+
+    private String fact;
+
+    private KieBaseCache.CachedKieBase pinned;
+
+    private RulesExecutor rulesExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        RulesSetGenerator generator = new RulesSetGenerator(ruleCount, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        json = generator.coreRulesSet(RuleFormat.JSON);
+        fact = generator.factJson(ruleCount / 2);
+        if (precompiled) {
+            pinned = KieBaseCache.INSTANCE.pin(RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, json));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void dispose() {
+        rulesExecutor.dispose();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pinned != null) {
+            KieBaseCache.INSTANCE.release(pinned);
+        }
+    }
+
+    @Benchmark
+    public List<Match> firstMatch() {
+        rulesExecutor = RulesExecutor.createRulesExecutor(RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, json));
+        return rulesExecutor.process(fact);
+    }
+}
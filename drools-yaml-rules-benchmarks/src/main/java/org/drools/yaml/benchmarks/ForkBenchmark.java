@@ -0,0 +1,90 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.ExecutorOptions;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.drools.yaml.core.domain.RulesSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to fork an executor holding many facts, compared with creating a new executor of the same rules set and
+ * inserting again all the facts in it. Each created executor is disposed right away, so the disposal is also measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ForkBenchmark {
+
+    // these rules only match single facts, so by default their executors wouldn't keep any fact to be forked
+    private static final ExecutorOptions KEEP_FACTS = ExecutorOptions.DEFAULT.withStateless(false);
+
+    @Param({"1000"})
+    private int ruleCount;
+
+    @Param({"10000", "100000"})
+    private int factCount;
+
+    private RulesSet rulesSet;
+
+    private List<Map<String, Object>> facts;
+
+    private RulesExecutor rulesExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        RulesSetGenerator generator = new RulesSetGenerator(ruleCount, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, generator.coreRulesSet(RuleFormat.JSON));
+        facts = new ArrayList<>(factCount);
+        rulesExecutor = RulesExecutor.createRulesExecutor(rulesSet, KEEP_FACTS);
+        for (int i = 0; i < factCount; i++) {
+            Map<String, Object> fact = generator.fact(i % (ruleCount * 2));
+            facts.add(fact);
+            rulesExecutor.execute(fact);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        rulesExecutor.dispose();
+    }
+
+    @Benchmark
+    public long fork() {
+        RulesExecutor fork = rulesExecutor.fork();
+        long factsCount = fork.factsCount();
+        fork.dispose();
+        return factsCount;
+    }
+
+    @Benchmark
+    public long rebuild() {
+        RulesExecutor copy = RulesExecutor.createRulesExecutor(rulesSet, KEEP_FACTS);
+        for (Map<String, Object> fact : facts) {
+            copy.execute(fact);
+        }
+        long factsCount = copy.factsCount();
+        copy.dispose();
+        return factsCount;
+    }
+}
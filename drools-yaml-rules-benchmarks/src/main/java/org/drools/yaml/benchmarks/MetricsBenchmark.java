@@ -0,0 +1,94 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.drools.yaml.core.ExecutorOptions;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.kie.api.runtime.rule.Match;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The overhead of the executor metrics on the process and execute requests, comparing them with metrics enabled
+ * and disabled. Many threads use the same executor, so any contention on the metrics would be visible too.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private static final int DISTINCT_FACTS = 1024;
+
+    @Param({"false", "true"})
+    private boolean metricsEnabled;
+
+    private SimpleMeterRegistry registry;
+    private String rules;
+    private String[] factJsons;
+
+    private RulesExecutor rulesExecutor;
+
+    @Setup
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+
+        RulesSetGenerator generator = new RulesSetGenerator(100, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        rules = generator.coreRulesSet(RuleFormat.JSON);
+        factJsons = new String[DISTINCT_FACTS];
+        for (int i = 0; i < DISTINCT_FACTS; i++) {
+            factJsons[i] = generator.factJson(i % 100);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Setup(Level.Iteration)
+    public void createExecutor() {
+        rulesExecutor = RulesExecutor.createRulesExecutor( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, rules),
+                ExecutorOptions.DEFAULT.withMetrics(metricsEnabled) );
+    }
+
+    @TearDown(Level.Iteration)
+    public void disposeExecutor() {
+        rulesExecutor.dispose();
+    }
+
+    @Benchmark
+    public List<Match> process(ThreadCounter counter) {
+        return rulesExecutor.process( factJsons[counter.next()] );
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCounter {
+        private int counter;
+
+        int next() {
+            return counter++ & (DISTINCT_FACTS - 1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.domain.RulesSet;
+import org.drools.yaml.durable.DurableNotation;
+import org.drools.yaml.durable.domain.DurableRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of the rules sets, from their text to the {@link RulesSet} domain model, in both notations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int ruleCount;
+
+    @Param({"NONE", "ALL", "ANY", "ANY_ALL"})
+    private RulesSetGenerator.Nesting nesting;
+
+    private String yamlRules;
+    private String jsonRules;
+    private String durableRules;
+    private DurableRules parsedDurableRules;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        RulesSetGenerator generator = new RulesSetGenerator(ruleCount, nesting, RulesSetGenerator.FactShape.NESTED);
+        yamlRules = generator.coreRulesSet(RuleFormat.YAML);
+        jsonRules = generator.coreRulesSet(RuleFormat.JSON);
+        durableRules = generator.durableRulesSet();
+        parsedDurableRules = new ObjectMapper().readValue(durableRules, DurableRules.class);
+    }
+
+    @Benchmark
+    public RulesSet yamlToRulesSet() {
+        return RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, yamlRules);
+    }
+
+    @Benchmark
+    public RulesSet jsonToRulesSet() {
+        return RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, jsonRules);
+    }
+
+    @Benchmark
+    public RulesSet durableJsonToRulesSet() {
+        return DurableNotation.INSTANCE.toRulesSet(RuleFormat.JSON, durableRules);
+    }
+
+    /**
+     * Only the conversion of already parsed durable rules, so {@code DurableRule.toRule} for each of them
+     */
+    @Benchmark
+    public RulesSet durableToRules() {
+        return parsedDurableRules.toRulesSet();
+    }
+}
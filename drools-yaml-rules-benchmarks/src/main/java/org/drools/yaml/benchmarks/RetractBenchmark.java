@@ -0,0 +1,88 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.ExecutorOptions;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.kie.api.runtime.rule.Match;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Retraction of facts by content from a working memory of a given size, and the cost that maintaining the
+ * content index adds to the insertions. Run it with {@code -prof gc} to also get the allocations per operation.
+ * The retained memory of the index is reported by {@link FactIndexFootprint}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RetractBenchmark {
+
+    @Param({"1000", "100000"})
+    private int factsCount;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private RulesSetGenerator generator;
+    private RulesExecutor rulesExecutor;
+    private String[] retractions;
+    private int counter;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        generator = new RulesSetGenerator(10, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        // these rules only match single facts, so by default their executors wouldn't keep any fact to be retracted
+        rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, generator.coreRulesSet(RuleFormat.JSON)),
+                ExecutorOptions.DEFAULT.withStateless(false) );
+        retractions = new String[factsCount];
+        for (int i = 0; i < factsCount; i++) {
+            rulesExecutor.process( generator.fact(i) );
+            retractions[i] = generator.factJson(i);
+        }
+        if (indexed) {
+            // retracting anything builds the index, that from now on is maintained at each insertion and deletion
+            rulesExecutor.retract("{ \"missing\": true }");
+        }
+        counter = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        rulesExecutor.dispose();
+    }
+
+    @Benchmark
+    public List<Match> insert() {
+        return rulesExecutor.process( generator.fact(counter++) );
+    }
+
+    /**
+     * Retracts a fact by content and inserts it again, so the size of the working memory doesn't change
+     */
+    @Benchmark
+    public int retractAndInsert() {
+        int i = counter++ % factsCount;
+        int retracted = rulesExecutor.retract( retractions[i] );
+        rulesExecutor.process( generator.fact(i) );
+        return retracted;
+    }
+}
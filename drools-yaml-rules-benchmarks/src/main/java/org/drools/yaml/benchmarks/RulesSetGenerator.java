@@ -0,0 +1,150 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import org.drools.yaml.core.RuleFormat;
+
+/**
+ * Generates synthetic rules sets, in both the core and the durable notation, and the facts matching them.
+ */
+public class RulesSetGenerator {
+
+    public enum Nesting {
+        /** a single constraint per rule */
+        NONE,
+        /** an all of 2 constraints */
+        ALL,
+        /** an any of 2 constraints */
+        ANY,
+        /** an any of an all of 2 constraints and of a third constraint */
+        ANY_ALL
+    }
+
+    public enum FactShape {
+        /** all the fields at the top level of the fact */
+        FLAT("", 0),
+        /** the fields nested 2 levels deep, like sensu.data.i */
+        NESTED("sensu.data.", 2),
+        /** the fields nested 5 levels deep */
+        DEEP("a.b.c.d.e.", 5);
+
+        private final String prefix;
+        private final int depth;
+
+        FactShape(String prefix, int depth) {
+            this.prefix = prefix;
+            this.depth = depth;
+        }
+
+        public String field(String name) {
+            return prefix + name;
+        }
+    }
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper YAML_MAPPER = new YAMLMapper();
+
+    private final int ruleCount;
+    private final Nesting nesting;
+    private final FactShape factShape;
+
+    public RulesSetGenerator(int ruleCount, Nesting nesting, FactShape factShape) {
+        this.ruleCount = ruleCount;
+        this.nesting = nesting;
+        this.factShape = factShape;
+    }
+
+    public String coreRulesSet(RuleFormat format) {
+        List<Map<String, Object>> rules = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            Map<String, Object> rule = new LinkedHashMap<>();
+            rule.put("name", "R" + i);
+            rule.put("condition", coreCondition(i));
+            rule.put("action", Map.of("run_playbook", List.of(Map.of("name", "playbook" + i + ".yml"))));
+            rules.add(rule);
+        }
+        return write(format == RuleFormat.YAML ? YAML_MAPPER : JSON_MAPPER, Map.of("host_rules", rules));
+    }
+
+    private Object coreCondition(int i) {
+        String first = factShape.field("i") + " == " + i;
+        String second = factShape.field("s") + " == \"v" + i + "\"";
+        switch (nesting) {
+            case NONE:
+                return first;
+            case ALL:
+                return Map.of("all", List.of(first, second));
+            case ANY:
+                return Map.of("any", List.of(first, second));
+            case ANY_ALL:
+                return Map.of("any", List.of(Map.of("all", List.of(first, second)), factShape.field("j") + " > " + i));
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    public String durableRulesSet() {
+        Map<String, Object> rules = new LinkedHashMap<>();
+        for (int i = 0; i < ruleCount; i++) {
+            Map<String, Object> rule = new LinkedHashMap<>();
+            rule.putAll(durableCondition(i));
+            rule.put("run", "playbook" + i);
+            rules.put("R" + i, rule);
+        }
+        return write(JSON_MAPPER, Map.of("benchmark", rules));
+    }
+
+    private Map<String, Object> durableCondition(int i) {
+        Map<String, Object> first = Map.of("m", Map.of(factShape.field("i"), i));
+        Map<String, Object> second = Map.of("n", Map.of(factShape.field("s"), "v" + i));
+        switch (nesting) {
+            case NONE:
+                return Map.of("all", List.of(first));
+            case ALL:
+                return Map.of("all", List.of(first, second));
+            case ANY:
+                return Map.of("any", List.of(first, second));
+            case ANY_ALL:
+                return Map.of("any", List.of(Map.of("all", List.of(first, second)),
+                        Map.of("o", Map.of("$gt", Map.of(factShape.field("j"), i)))));
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a fact matching the rule with the given index
+     */
+    public Map<String, Object> fact(int ruleIndex) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("i", ruleIndex);
+        fields.put("s", "v" + ruleIndex);
+        fields.put("j", -1);
+        fields.put("other", "unrelated");
+
+        Map<String, Object> fact = fields;
+        String[] path = factShape.prefix.split("\\.");
+        for (int i = factShape.depth - 1; i >= 0; i--) {
+            Map<String, Object> parent = new LinkedHashMap<>();
+            parent.put(path[i], fact);
+            fact = parent;
+        }
+        return fact;
+    }
+
+    public String factJson(int ruleIndex) {
+        return write(JSON_MAPPER, fact(ruleIndex));
+    }
+
+    private static String write(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.drools.yaml.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.KieBaseCache;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.drools.yaml.core.RulesSetStore;
+import org.drools.yaml.core.domain.RulesSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The startup of an executor after a restart. With a cold store its rules set is parsed from the request and compiled
+ * when the executor is created, while with a warm store the rules set is read from the disk and compiled at startup,
+ * so the creation of the executor only has to parse the request and create a session. {@link #preload} measures
+ * the startup work moved ahead of the first request.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RulesSetStoreBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int ruleCount;
+
+    private String json;
+
+    private Path root;
+
+    private Path storedFile;
+
+    private byte[] storedContent;
+
+    private RulesExecutor rulesExecutor;
+
+    private final List<KieBaseCache.CachedKieBase> preloaded = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        json = new RulesSetGenerator(ruleCount, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED).coreRulesSet(RuleFormat.JSON);
+        root = Files.createTempDirectory("rules-set-store");
+        RulesSetStore.INSTANCE.setDirectory(root);
+
+        // creating an executor stores its rules set, that is kept aside to restore it after each invocation
+        RulesExecutor executor = createExecutor();
+        try (var files = Files.list(RulesSetStore.INSTANCE.getDirectory())) {
+            storedFile = files.findFirst().orElseThrow();
+        }
+        storedContent = Files.readAllBytes(storedFile);
+        executor.dispose();
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreStore() throws IOException {
+        Files.write(storedFile, storedContent);
+    }
+
+    @TearDown(Level.Invocation)
+    public void dispose() {
+        if (rulesExecutor != null) {
+            // the executor took over the references of the preloaded KieBases
+            rulesExecutor.dispose();
+            rulesExecutor = null;
+        } else {
+            preloaded.forEach(KieBaseCache.INSTANCE::release);
+        }
+        preloaded.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        RulesSetStore.INSTANCE.setDirectory(null);
+        Files.deleteIfExists(storedFile);
+        Files.deleteIfExists(storedFile.getParent());
+        Files.deleteIfExists(root);
+    }
+
+    private RulesExecutor createExecutor() {
+        return RulesExecutor.createRulesExecutor(RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, json));
+    }
+
+    @Benchmark
+    public RulesExecutor coldStart() {
+        rulesExecutor = createExecutor();
+        return rulesExecutor;
+    }
+
+    @Benchmark
+    public List<KieBaseCache.CachedKieBase> preload() {
+        for (RulesSet rulesSet : RulesSetStore.INSTANCE.load()) {
+            preloaded.add(KieBaseCache.INSTANCE.preload(rulesSet));
+        }
+        return preloaded;
+    }
+
+    @Benchmark
+    public RulesExecutor warmStart(Preloaded state) {
+        rulesExecutor = createExecutor();
+        return rulesExecutor;
+    }
+
+    /**
+     * Preloads the stored rules set before each invocation, as done at startup
+     */
+    @State(Scope.Benchmark)
+    public static class Preloaded {
+
+        @Setup(Level.Invocation)
+        public void preload(RulesSetStoreBenchmark benchmark) throws IOException {
+            benchmark.restoreStore();
+            benchmark.preload();
+        }
+    }
+}
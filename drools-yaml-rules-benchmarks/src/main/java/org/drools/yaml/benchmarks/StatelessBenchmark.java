@@ -0,0 +1,77 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.ExecutorOptions;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.kie.api.runtime.rule.Match;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency of the process requests of a rules set only matching single facts, with an executor keeping
+ * all the facts in its working memory and with one deleting them as soon as the rules have been evaluated on them.
+ * As in {@link ExecutorBenchmark} a new executor is created for each iteration.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatelessBenchmark {
+
+    private static final int DISTINCT_FACTS = 1024;
+
+    @Param({"10", "100", "1000"})
+    private int ruleCount;
+
+    @Param({"false", "true"})
+    private boolean stateless;
+
+    private String rules;
+    private String[] factJsons;
+
+    private RulesExecutor rulesExecutor;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        RulesSetGenerator generator = new RulesSetGenerator(ruleCount, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        rules = generator.coreRulesSet(RuleFormat.JSON);
+        factJsons = new String[DISTINCT_FACTS];
+        for (int i = 0; i < DISTINCT_FACTS; i++) {
+            factJsons[i] = generator.factJson(i % ruleCount);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createExecutor() {
+        rulesExecutor = RulesExecutor.createRulesExecutor( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, rules),
+                ExecutorOptions.DEFAULT.withStateless(stateless) );
+    }
+
+    @TearDown(Level.Iteration)
+    public void disposeExecutor() {
+        rulesExecutor.dispose();
+    }
+
+    @Benchmark
+    public List<Match> process() {
+        return rulesExecutor.process( factJsons[counter++ & (DISTINCT_FACTS - 1)] );
+    }
+}
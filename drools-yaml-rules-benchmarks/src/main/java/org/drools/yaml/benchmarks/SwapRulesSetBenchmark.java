@@ -0,0 +1,81 @@
+package org.drools.yaml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.ExecutorOptions;
+import org.drools.yaml.core.KieBaseCache;
+import org.drools.yaml.core.RuleFormat;
+import org.drools.yaml.core.RuleNotation;
+import org.drools.yaml.core.RulesExecutor;
+import org.drools.yaml.core.SwapResult;
+import org.drools.yaml.core.domain.RulesSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pause of an executor swapping its rules set with another version, i.e. the time spent moving its facts to the new
+ * session. Both versions are compiled in advance, so the compilation done in the background is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SwapRulesSetBenchmark {
+
+    @Param({"1000"})
+    private int ruleCount;
+
+    @Param({"1000", "10000", "100000"})
+    private int factCount;
+
+    private RulesSet[] versions;
+
+    private KieBaseCache.CachedKieBase[] pinned;
+
+    private RulesExecutor rulesExecutor;
+
+    private int swaps;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        RulesSetGenerator generator = new RulesSetGenerator(ruleCount, RulesSetGenerator.Nesting.NONE, RulesSetGenerator.FactShape.NESTED);
+        String json = generator.coreRulesSet(RuleFormat.JSON);
+        // the second version only changes the playbook run by the first rule
+        versions = new RulesSet[] {
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, json),
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, json.replace("playbook0.yml", "playbook0-v2.yml"))
+        };
+        pinned = new KieBaseCache.CachedKieBase[] { KieBaseCache.INSTANCE.pin(versions[0]), KieBaseCache.INSTANCE.pin(versions[1]) };
+        // these rules only match single facts, so by default their executors wouldn't keep any fact to be moved
+        rulesExecutor = RulesExecutor.createRulesExecutor(versions[0], ExecutorOptions.DEFAULT.withStateless(false));
+        for (int i = 0; i < factCount; i++) {
+            rulesExecutor.execute(generator.fact(i % (ruleCount * 2)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        rulesExecutor.dispose();
+        for (KieBaseCache.CachedKieBase cached : pinned) {
+            KieBaseCache.INSTANCE.release(cached);
+        }
+    }
+
+    @Benchmark
+    public SwapResult swap() {
+        return rulesExecutor.swapRulesSet(versions[++swaps % 2]).join();
+    }
+}
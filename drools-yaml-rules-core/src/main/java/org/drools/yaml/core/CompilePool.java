@@ -0,0 +1,54 @@
+package org.drools.yaml.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * The bounded pool of threads compiling the executors created asynchronously, so that large rules sets never block
+ * the threads serving the requests. Its number of threads and the maximum number of compilations waiting for one of
+ * them are set with the {@code drools.yaml.compile.pool-size} and {@code drools.yaml.compile.queue-size}
+ * configuration properties. Each compilation can in turn use multiple threads, see {@link SessionGenerator#getDefaultParallelism()}.
+ */
+public enum CompilePool {
+
+    INSTANCE;
+
+    public static final String POOL_SIZE_PROPERTY = "drools.yaml.compile.pool-size";
+    public static final String QUEUE_SIZE_PROPERTY = "drools.yaml.compile.queue-size";
+
+    private final ThreadPoolExecutor executor;
+
+    CompilePool() {
+        int poolSize = readInt(POOL_SIZE_PROPERTY, 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(readInt(QUEUE_SIZE_PROPERTY, 100)), r -> {
+                    Thread thread = new Thread(r, "drools-yaml-compile-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static int readInt(String property, int defaultValue) {
+        try {
+            return ConfigProvider.getConfig().getOptionalValue(property, Integer.class).orElse(defaultValue);
+        } catch (RuntimeException e) {
+            // no configuration available, e.g. when used outside of quarkus
+            return Integer.getInteger(property, defaultValue);
+        }
+    }
+
+    /**
+     * Runs the compilation on one of the threads of the pool
+     *
+     * @throws RejectedExecutionException if too many compilations are already waiting
+     */
+    void submit(Runnable compilation) {
+        executor.execute(compilation);
+    }
+}
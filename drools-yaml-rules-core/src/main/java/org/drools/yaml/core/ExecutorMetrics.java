@@ -0,0 +1,198 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.kie.api.runtime.KieSession;
+
+/**
+ * The Micrometer metrics of a single executor, tagged with its id. The listeners only increment {@link LongAdder}s,
+ * that are read by the registry when the metrics are scraped, so they never contend with the threads firing the rules.
+ * Metrics can be turned off with the {@code drools.yaml.metrics.enabled} configuration property or for a single
+ * executor with {@link ExecutorOptions#withMetrics(boolean)}. The activations are counted per executor, and also per
+ * rule only when enabled with {@code drools.yaml.metrics.per-rule} or {@link ExecutorOptions#withPerRuleMetrics(boolean)},
+ * since the meters of each rule of each executor could be far too many for the registry.
+ */
+public class ExecutorMetrics extends DefaultAgendaEventListener implements RuleRuntimeEventListener {
+
+    public static final String ENABLED_PROPERTY = "drools.yaml.metrics.enabled";
+    public static final String PER_RULE_PROPERTY = "drools.yaml.metrics.per-rule";
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final List<Meter> meters = new CopyOnWriteArrayList<>();
+
+    private final LongAdder factsInserted = new LongAdder();
+    private final LongAdder activations = new LongAdder();
+    // null unless the activations are also counted per rule
+    private final Map<String, RuleCounter> ruleActivations;
+    private final LongAdder matchesCreated = new LongAdder();
+    private final Timer fireTimer;
+    private final DistributionSummary agendaSize;
+
+    private volatile KieSession ksession;
+
+    private ExecutorMetrics(MeterRegistry registry, long executorId, KieSession ksession, boolean perRule) {
+        this.registry = registry;
+        this.tags = Tags.of("executor", String.valueOf(executorId));
+        this.ksession = ksession;
+        this.ruleActivations = perRule ? new ConcurrentHashMap<>() : null;
+
+        meters.add( FunctionCounter.builder("drools.executor.facts.inserted", factsInserted, LongAdder::sum)
+                .description("Facts inserted in the executor").tags(tags).register(registry) );
+        meters.add( Gauge.builder("drools.executor.facts", this, metrics -> metrics.ksession.getFactCount())
+                .description("Facts currently in the working memory of the executor").tags(tags).register(registry) );
+        meters.add( FunctionCounter.builder("drools.executor.activations", activations, LongAdder::sum)
+                .description("Activations of the rules of the executor").tags(tags).register(registry) );
+        this.fireTimer = Timer.builder("drools.executor.fire")
+                .description("Duration of the fire cycles of the executor").tags(tags)
+                .publishPercentileHistogram().register(registry);
+        meters.add(fireTimer);
+        this.agendaSize = DistributionSummary.builder("drools.executor.agenda.size")
+                .description("Matches created in the agenda at each fire cycle").tags(tags).register(registry);
+        meters.add(agendaSize);
+    }
+
+    /**
+     * Creates the metrics of an executor and attaches their listeners to its session, or returns null if its options disable them
+     */
+    static ExecutorMetrics attach(long executorId, KieSession ksession, ExecutorOptions options) {
+        if (!options.isMetrics()) {
+            return null;
+        }
+        ExecutorMetrics metrics = new ExecutorMetrics(Metrics.globalRegistry, executorId, ksession, options.isPerRuleMetrics());
+        metrics.addListeners(ksession);
+        return metrics;
+    }
+
+    /**
+     * Keeps measuring the executor after its session has been replaced by a new one
+     */
+    void moveTo(KieSession ksession) {
+        this.ksession = ksession;
+        addListeners(ksession);
+    }
+
+    private void addListeners(KieSession ksession) {
+        ksession.addEventListener((AgendaEventListener) this);
+        ksession.addEventListener((RuleRuntimeEventListener) this);
+    }
+
+    int timeFire(IntSupplier fire) {
+        long matchesBefore = matchesCreated.sum();
+        long start = System.nanoTime();
+        try {
+            return fire.getAsInt();
+        } finally {
+            fireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            agendaSize.record(matchesCreated.sum() - matchesBefore);
+        }
+    }
+
+    @Override
+    public void matchCreated(MatchCreatedEvent event) {
+        matchesCreated.increment();
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        ruleActivated(event.getMatch().getRule().getName());
+    }
+
+    /**
+     * Counts an activation of a rule, either fired or only registered and returned to the caller without firing it
+     */
+    void ruleActivated(String ruleName) {
+        activations.increment();
+        if (ruleActivations != null) {
+            ruleActivations.computeIfAbsent(ruleName, this::registerRuleCounter).count.increment();
+        }
+    }
+
+    private RuleCounter registerRuleCounter(String ruleName) {
+        LongAdder count = new LongAdder();
+        Meter meter = FunctionCounter.builder("drools.executor.rule.activations", count, LongAdder::sum)
+                .description("Activations of a rule in the executor").tags(tags.and("rule", ruleName)).register(registry);
+        return new RuleCounter(count, meter);
+    }
+
+    /**
+     * Removes the meter of a rule that has been removed from the executor
+     */
+    void ruleRemoved(String ruleName) {
+        if (ruleActivations != null) {
+            RuleCounter counter = ruleActivations.remove(ruleName);
+            if (counter != null) {
+                registry.remove(counter.meter);
+            }
+        }
+    }
+
+    /**
+     * Removes the meters of the rules that are not in the rules set the executor has been swapped to
+     */
+    void retainRules(Set<String> ruleNames) {
+        if (ruleActivations != null) {
+            for (String ruleName : ruleActivations.keySet()) {
+                if (!ruleNames.contains(ruleName)) {
+                    ruleRemoved(ruleName);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void objectInserted(ObjectInsertedEvent event) {
+        factsInserted.increment();
+    }
+
+    @Override
+    public void objectUpdated(ObjectUpdatedEvent event) { }
+
+    @Override
+    public void objectDeleted(ObjectDeletedEvent event) { }
+
+    /**
+     * Removes all the meters of the executor from the registry
+     */
+    void close() {
+        meters.forEach(registry::remove);
+        meters.clear();
+        if (ruleActivations != null) {
+            ruleActivations.values().forEach(counter -> registry.remove(counter.meter));
+            ruleActivations.clear();
+        }
+    }
+
+    private static class RuleCounter {
+        private final LongAdder count;
+        private final Meter meter;
+
+        private RuleCounter(LongAdder count, Meter meter) {
+            this.count = count;
+            this.meter = meter;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.drools.yaml.core;
+
+/**
+ * Thrown when using an executor whose rules are still being compiled
+ */
+public class ExecutorNotReadyException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ExecutorNotReadyException(long id) {
+        super("Rules executor " + id + " is still compiling its rules");
+    }
+}
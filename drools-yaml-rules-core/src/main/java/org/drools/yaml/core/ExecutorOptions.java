@@ -0,0 +1,131 @@
+package org.drools.yaml.core;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * The optional features of a {@link RulesExecutor} that have to be chosen when creating it. The default ones
+ * are read from the configuration, so they are the same for all the executors not asking for different ones.
+ */
+public class ExecutorOptions {
+
+    public static final String STATELESS_PROPERTY = "drools.yaml.stateless";
+
+    public static final ExecutorOptions DEFAULT = new ExecutorOptions(false, false, false,
+            readFlag(STATELESS_PROPERTY, true), SessionGenerator.getDefaultParallelism(),
+            readFlag(ExecutorMetrics.ENABLED_PROPERTY, true), readFlag(ExecutorMetrics.PER_RULE_PROPERTY, false));
+
+    private final boolean pseudoClock;
+    private final boolean profiling;
+    private final boolean editableRules;
+    private final boolean stateless;
+    private final int compileParallelism;
+    private final boolean metrics;
+    private final boolean perRuleMetrics;
+
+    private ExecutorOptions(boolean pseudoClock, boolean profiling, boolean editableRules, boolean stateless, int compileParallelism,
+                            boolean metrics, boolean perRuleMetrics) {
+        this.pseudoClock = pseudoClock;
+        this.profiling = profiling;
+        this.editableRules = editableRules;
+        this.stateless = stateless;
+        this.compileParallelism = compileParallelism;
+        this.metrics = metrics;
+        this.perRuleMetrics = perRuleMetrics;
+    }
+
+    static boolean readFlag(String property, boolean defaultValue) {
+        try {
+            return ConfigProvider.getConfig().getOptionalValue(property, Boolean.class).orElse(defaultValue);
+        } catch (RuntimeException e) {
+            // no configuration available, e.g. when used outside of quarkus
+            return Boolean.parseBoolean(System.getProperty(property, String.valueOf(defaultValue)));
+        }
+    }
+
+    /**
+     * Uses a pseudo clock, that only moves forward when invoking {@link RulesExecutor#advanceTime}, so that
+     * the expiration of the facts can be deterministically tested.
+     */
+    public ExecutorOptions withPseudoClock() {
+        return new ExecutorOptions(true, profiling, editableRules, stateless, compileParallelism, metrics, perRuleMetrics);
+    }
+
+    /**
+     * Profiles the rules of the executor. This requires compiling a KieBase only for this executor instead
+     * of sharing it with the other executors of the same rules set.
+     */
+    public ExecutorOptions withProfiling() {
+        return new ExecutorOptions(pseudoClock, true, editableRules, stateless, compileParallelism, metrics, perRuleMetrics);
+    }
+
+    /**
+     * Allows adding, replacing and removing the rules of the executor while it is running. This requires compiling
+     * a KieBase only for this executor instead of sharing it with the other executors of the same rules set.
+     */
+    public ExecutorOptions withEditableRules() {
+        return new ExecutorOptions(pseudoClock, profiling, true, stateless, compileParallelism, metrics, perRuleMetrics);
+    }
+
+    /**
+     * Whether the executor deletes the facts as soon as the rules have been fired on them when its rules set doesn't
+     * need a working memory, see {@link SessionGenerator#isStateless()}. By default set with {@code drools.yaml.stateless}.
+     */
+    public ExecutorOptions withStateless(boolean stateless) {
+        return new ExecutorOptions(pseudoClock, profiling, editableRules, stateless, compileParallelism, metrics, perRuleMetrics);
+    }
+
+    /**
+     * Compiles the rules of the executor in the given number of chunks, unless they are already cached. The chunks are
+     * compiled by the calling thread and by the ones shared by all the compilations, that are as many as set with
+     * {@code drools.yaml.compile.parallelism}, also the default of this option.
+     */
+    public ExecutorOptions withCompileParallelism(int compileParallelism) {
+        if (compileParallelism < 1) {
+            throw new IllegalArgumentException("Invalid compilation parallelism: " + compileParallelism);
+        }
+        return new ExecutorOptions(pseudoClock, profiling, editableRules, stateless, compileParallelism, metrics, perRuleMetrics);
+    }
+
+    /**
+     * Whether the executor publishes its metrics, see {@link ExecutorMetrics}. By default set with {@code drools.yaml.metrics.enabled}.
+     */
+    public ExecutorOptions withMetrics(boolean metrics) {
+        return new ExecutorOptions(pseudoClock, profiling, editableRules, stateless, compileParallelism, metrics, perRuleMetrics);
+    }
+
+    /**
+     * Whether the metrics of the executor also count the activations of each rule. By default set with
+     * {@code drools.yaml.metrics.per-rule}.
+     */
+    public ExecutorOptions withPerRuleMetrics(boolean perRuleMetrics) {
+        return new ExecutorOptions(pseudoClock, profiling, editableRules, stateless, compileParallelism, metrics, perRuleMetrics);
+    }
+
+    public boolean isPseudoClock() {
+        return pseudoClock;
+    }
+
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    public boolean isEditableRules() {
+        return editableRules;
+    }
+
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    public int getCompileParallelism() {
+        return compileParallelism;
+    }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public boolean isPerRuleMetrics() {
+        return perRuleMetrics;
+    }
+}
@@ -0,0 +1,69 @@
+package org.drools.yaml.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The state of the creation of an executor: still compiling its rules, ready to be used or failed. The executors
+ * created asynchronously are in the {@link RulesExecutorContainer} only once ready, so until then this is all that
+ * is known about them.
+ */
+public class ExecutorStatus {
+
+    public enum Status { COMPILING, READY, FAILED }
+
+    private final long id;
+    private final long submitted = System.nanoTime();
+
+    private volatile Status status = Status.COMPILING;
+    private volatile long compileNanos = -1;
+    private volatile String error;
+    private volatile long failedAt;
+
+    ExecutorStatus(long id) {
+        this.id = id;
+    }
+
+    static ExecutorStatus of(RulesExecutor rulesExecutor) {
+        ExecutorStatus status = new ExecutorStatus(rulesExecutor.getId());
+        status.ready(rulesExecutor.getCompileNanos());
+        return status;
+    }
+
+    void ready(long compileNanos) {
+        this.compileNanos = compileNanos;
+        this.status = Status.READY;
+    }
+
+    void failed(Throwable cause) {
+        this.failedAt = System.nanoTime();
+        this.compileNanos = failedAt - submitted;
+        this.error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        this.status = Status.FAILED;
+    }
+
+    boolean failedBefore(long nanoTime) {
+        return status == Status.FAILED && failedAt - nanoTime < 0;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the time spent compiling the rules of the executor, or null while it is still compiling
+     */
+    public Double getCompile_time_ms() {
+        return compileNanos < 0 ? null : compileNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the reason why the creation of the executor failed, or null if it didn't
+     */
+    public String getError() {
+        return error;
+    }
+}
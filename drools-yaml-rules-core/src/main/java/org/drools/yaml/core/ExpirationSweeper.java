@@ -0,0 +1,59 @@
+package org.drools.yaml.core;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+
+/**
+ * Periodically retracts the expired facts of the executors, that would be otherwise retracted only when the rules
+ * are fired, so never for an executor not receiving any request. It starts with the first rules set declaring a time
+ * to live, and the interval between two sweeps is set with the {@code drools.yaml.expiration.sweep-interval}
+ * configuration property, e.g. 500ms or 5s.
+ */
+enum ExpirationSweeper {
+
+    INSTANCE;
+
+    static final String SWEEP_INTERVAL_PROPERTY = "drools.yaml.expiration.sweep-interval";
+
+    private static final Logger LOG = Logger.getLogger(ExpirationSweeper.class);
+
+    private final long intervalMillis = FactExpirer.parseDuration(readString(SWEEP_INTERVAL_PROPERTY, "1s"));
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private static String readString(String property, String defaultValue) {
+        try {
+            return ConfigProvider.getConfig().getOptionalValue(property, String.class).orElse(defaultValue);
+        } catch (RuntimeException e) {
+            // no configuration available, e.g. when used outside of quarkus
+            return System.getProperty(property, defaultValue);
+        }
+    }
+
+    void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "drools-yaml-expiration-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void sweep() {
+        for (RulesExecutor rulesExecutor : RulesExecutorContainer.INSTANCE.getAll()) {
+            try {
+                rulesExecutor.expireIdleFacts();
+            } catch (RuntimeException e) {
+                // a failure would cancel the next sweeps
+                LOG.warnf(e, "Cannot expire the facts of rules executor %d", rulesExecutor.getId());
+            }
+        }
+    }
+}
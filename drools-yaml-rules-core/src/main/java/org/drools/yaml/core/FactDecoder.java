@@ -0,0 +1,216 @@
+package org.drools.yaml.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.drools.core.facttemplates.Fact;
+import org.drools.yaml.core.rulesmodel.FieldPath;
+
+/**
+ * Decodes json documents into facts in a single streaming pass, writing every leaf value directly
+ * into the fact under its dotted path without building any intermediate map for the nested objects.
+ */
+public class FactDecoder {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .build();
+
+    private static final String FACTS_FIELD = "facts";
+
+    private final Supplier<Fact> factSupplier;
+    private final FieldPath fieldPaths;
+
+    public FactDecoder(Supplier<Fact> factSupplier) {
+        this(factSupplier, FieldPath.root());
+    }
+
+    public FactDecoder(Supplier<Fact> factSupplier, FieldPath fieldPaths) {
+        this.factSupplier = factSupplier;
+        this.fieldPaths = fieldPaths;
+    }
+
+    /**
+     * Decodes a single json object into a fact or, when the object is in the form { "facts": [ ... ] } without
+     * any other field, each of the objects in that list into a different fact, also flattening the lists of
+     * facts nested in the same form.
+     *
+     * @throws InvalidFactException if the json is malformed or a fact is not a json object
+     */
+    public List<Fact> decodeFacts(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return readFacts(parser);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    public List<Fact> decodeFacts(InputStream json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return readFacts(parser);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    /**
+     * Lazily decodes either the objects of a json array or a stream of newline delimited json objects,
+     * so each fact can be consumed while the rest of the input has still to be read.
+     */
+    public Iterator<Fact> decodeSequence(InputStream json) {
+        try {
+            return new FactsIterator(JSON_FACTORY.createParser(json));
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    private static InvalidFactException invalidJson(IOException e) {
+        return new InvalidFactException("Invalid json: " + e.getMessage(), e);
+    }
+
+    private List<Fact> readFacts(JsonParser parser) throws IOException {
+        checkObjectStart(parser.nextToken());
+        List<Fact> facts = new ArrayList<>(1);
+        readObjectFacts(parser, facts);
+        return facts;
+    }
+
+    // reads the object whose start has been just read, adding to the given list either the fact it represents or the ones it wraps
+    private void readObjectFacts(JsonParser parser, List<Fact> facts) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.FIELD_NAME || !FACTS_FIELD.equals(parser.getCurrentName())) {
+            facts.add(readFact(parser, token));
+            return;
+        }
+
+        // whether the object only wraps other facts is known once it ends, so the value is kept until then
+        JsonToken valueToken = parser.nextToken();
+        TokenBuffer value = new TokenBuffer(parser);
+        value.copyCurrentStructure(parser);
+        token = parser.nextToken();
+        try (JsonParser replay = value.asParser()) {
+            if (valueToken == JsonToken.START_ARRAY && token == JsonToken.END_OBJECT) {
+                replay.nextToken();
+                for (JsonToken element = replay.nextToken(); element != JsonToken.END_ARRAY; element = replay.nextToken()) {
+                    checkObjectStart(element);
+                    readObjectFacts(replay, facts);
+                }
+                return;
+            }
+            // the facts field is only one of the fields of a bigger fact
+            Fact fact = factSupplier.get();
+            readField(replay, fact, fieldPaths.child(FACTS_FIELD), replay.nextToken());
+            readFields(parser, fact, fieldPaths, token);
+            facts.add(fact);
+        }
+    }
+
+    private Fact readFact(JsonParser parser, JsonToken firstToken) throws IOException {
+        Fact fact = factSupplier.get();
+        readFields(parser, fact, fieldPaths, firstToken);
+        return fact;
+    }
+
+    private void readFields(JsonParser parser, Fact fact, FieldPath parent, JsonToken token) throws IOException {
+        for (; token != JsonToken.END_OBJECT; token = parser.nextToken()) {
+            readField(parser, fact, parent.child(parser.getCurrentName()), parser.nextToken());
+        }
+    }
+
+    private void readField(JsonParser parser, Fact fact, FieldPath fieldPath, JsonToken valueToken) throws IOException {
+        if (valueToken == JsonToken.START_OBJECT) {
+            readFields(parser, fact, fieldPath, parser.nextToken());
+        } else {
+            fact.set(fieldPath.getPath(), readValue(parser, valueToken));
+        }
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_ARRAY:
+                List<Object> list = new ArrayList<>();
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser, token));
+                }
+                return list;
+            case START_OBJECT:
+                // objects nested inside lists are kept as they are
+                Map<String, Object> map = new HashMap<>();
+                while (parser.nextToken() != JsonToken.END_OBJECT) {
+                    String name = parser.getCurrentName();
+                    map.put(name, readValue(parser, parser.nextToken()));
+                }
+                return map;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return true;
+            case VALUE_FALSE:
+                return false;
+            case VALUE_NULL:
+                return null;
+        }
+        throw new InvalidFactException("Unexpected json token " + token);
+    }
+
+    private static void checkObjectStart(JsonToken token) {
+        if (token != JsonToken.START_OBJECT) {
+            throw new InvalidFactException("A fact must be a json object, found " + token);
+        }
+    }
+
+    private class FactsIterator implements Iterator<Fact> {
+
+        private final JsonParser parser;
+
+        private JsonToken next;
+
+        private FactsIterator(JsonParser parser) throws IOException {
+            this.parser = parser;
+            this.next = parser.nextToken();
+            if (next == JsonToken.START_ARRAY) {
+                this.next = parser.nextToken();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null && next != JsonToken.END_ARRAY;
+        }
+
+        @Override
+        public Fact next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                checkObjectStart(next);
+                Fact fact = readFact(parser, parser.nextToken());
+                next = parser.nextToken();
+                if (!hasNext()) {
+                    parser.close();
+                }
+                return fact;
+            } catch (IOException e) {
+                throw invalidJson(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.drools.yaml.core;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.drools.core.facttemplates.Fact;
+import org.drools.yaml.core.domain.RulesSet;
+import org.drools.yaml.core.domain.Source;
+import org.drools.yaml.core.rulesmodel.ArrayBasedFact;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+/**
+ * Retracts the facts once they are older than the ttl declared by the rules set or than the max_age of the
+ * source they come from, i.e. the source having the same name of one of the top level fields of the fact.
+ * The facts with the same time to live expire in the same order they have been inserted, so they're kept in
+ * a queue for each distinct time to live and expiring them only needs to check the heads of these queues.
+ */
+class FactExpirer {
+
+    private static final Pattern DURATION = Pattern.compile("\\s*(\\d+)\\s*(ms|s|m|h|d)?\\s*");
+
+    // facts with unbounded key sets shouldn't make the cache of the max age of their keys grow forever
+    static final int MAX_CACHED_KEYS = 10_000;
+    private static final Long NO_MAX_AGE = -1L;
+
+    private final long defaultTtl;
+    private final Map<String, Long> sourcesMaxAge = new HashMap<>();
+    // the max age of the source of each key already seen, so the source of a key is only resolved once
+    private final Map<String, Long> keysMaxAge = new HashMap<>();
+
+    private final Map<Long, ArrayDeque<ExpiringFact>> expiringFacts = new HashMap<>();
+    private int size;
+
+    private FactExpirer(long defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    /**
+     * Returns the expirer for the given rules set, or null if it doesn't declare any time to live
+     */
+    static FactExpirer of(RulesSet rulesSet) {
+        FactExpirer expirer = new FactExpirer(rulesSet.getTtl() != null ? parseDuration(rulesSet.getTtl()) : -1);
+        if (rulesSet.getSources() != null) {
+            for (Source source : rulesSet.getSources()) {
+                if (source.getMax_age() != null) {
+                    expirer.sourcesMaxAge.put(source.getName(), parseDuration(source.getMax_age()));
+                }
+            }
+        }
+        if (expirer.defaultTtl < 0 && expirer.sourcesMaxAge.isEmpty()) {
+            return null;
+        }
+        ExpirationSweeper.INSTANCE.start();
+        return expirer;
+    }
+
+    /**
+     * Parses a duration like 500ms, 30s, 5m, 1h or 1d into milliseconds. A number without unit is in seconds.
+     */
+    static long parseDuration(String duration) {
+        Matcher matcher = DURATION.matcher(duration);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid duration " + duration);
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        String unit = matcher.group(2);
+        if (unit == null) {
+            return TimeUnit.SECONDS.toMillis(amount);
+        }
+        switch (unit) {
+            case "ms":
+                return amount;
+            case "s":
+                return TimeUnit.SECONDS.toMillis(amount);
+            case "m":
+                return TimeUnit.MINUTES.toMillis(amount);
+            case "h":
+                return TimeUnit.HOURS.toMillis(amount);
+            default:
+                return TimeUnit.DAYS.toMillis(amount);
+        }
+    }
+
+    void track(FactHandle factHandle, Fact fact, long now) {
+        long ttl = ttlOf(fact);
+        if (ttl >= 0) {
+            expiringFacts.computeIfAbsent(ttl, t -> new ArrayDeque<>()).add(new ExpiringFact(factHandle, now + ttl));
+            size++;
+        }
+    }
+
+    private long ttlOf(Fact fact) {
+        if (sourcesMaxAge.isEmpty()) {
+            return defaultTtl;
+        }
+        long ttl = defaultTtl;
+        Iterable<String> keys = fact instanceof ArrayBasedFact ? ((ArrayBasedFact) fact).keys() : fact.asMap().keySet();
+        for (String key : keys) {
+            long maxAge = maxAgeOf(key);
+            if (maxAge >= 0 && (ttl < 0 || maxAge < ttl)) {
+                ttl = maxAge;
+            }
+        }
+        return ttl;
+    }
+
+    private long maxAgeOf(String key) {
+        Long maxAge = keysMaxAge.get(key);
+        if (maxAge == null) {
+            int dotPos = key.indexOf('.');
+            maxAge = sourcesMaxAge.getOrDefault(dotPos < 0 ? key : key.substring(0, dotPos), NO_MAX_AGE);
+            if (keysMaxAge.size() < MAX_CACHED_KEYS) {
+                keysMaxAge.put(key, maxAge);
+            }
+        }
+        return maxAge;
+    }
+
+    /**
+     * Deletes from the session all the facts expired at the given time and returns how many of them have been deleted
+     */
+    int expire(KieSession ksession, long now) {
+        int expired = 0;
+        for (ArrayDeque<ExpiringFact> queue : expiringFacts.values()) {
+            while (!queue.isEmpty() && queue.peek().expiration <= now) {
+                FactHandle factHandle = queue.poll().factHandle;
+                size--;
+                // the fact could have been already retracted by a rule
+                if (ksession.getObject(factHandle) != null) {
+                    ksession.delete(factHandle);
+                    expired++;
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the expirer of a new session, where the facts tracked by the previous expirer have been moved getting
+     * the given handles. Those facts keep the expiration they had, while the ones inserted from now on expire
+     * according to the next expirer, that is the same of the previous one unless the rules set has been replaced.
+     */
+    static FactExpirer migrate(FactExpirer previous, FactExpirer next, Map<FactHandle, FactHandle> migratedHandles) {
+        if (previous == null || previous.size == 0) {
+            return next;
+        }
+        FactExpirer target = next != null ? next : new FactExpirer(-1);
+        Map<Long, ArrayDeque<ExpiringFact>> tracked = new HashMap<>(previous.expiringFacts);
+        previous.expiringFacts.clear();
+        previous.size = 0;
+        for (Map.Entry<Long, ArrayDeque<ExpiringFact>> entry : tracked.entrySet()) {
+            for (ExpiringFact expiring : entry.getValue()) {
+                FactHandle migrated = migratedHandles.get(expiring.factHandle);
+                // the facts already retracted have not been moved
+                if (migrated != null) {
+                    target.expiringFacts.computeIfAbsent(entry.getKey(), t -> new ArrayDeque<>()).add(new ExpiringFact(migrated, expiring.expiration));
+                    target.size++;
+                }
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Returns an expirer tracking the same facts with the same expiration, that can be then moved to another session
+     * with {@link #migrate} without affecting this one
+     */
+    FactExpirer copy() {
+        FactExpirer copy = emptyCopy();
+        expiringFacts.forEach((ttl, queue) -> copy.expiringFacts.put(ttl, new ArrayDeque<>(queue)));
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns an expirer with the same time to live of this one, not tracking any fact yet
+     */
+    FactExpirer emptyCopy() {
+        FactExpirer copy = new FactExpirer(defaultTtl);
+        copy.sourcesMaxAge.putAll(sourcesMaxAge);
+        return copy;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static class ExpiringFact {
+        private final FactHandle factHandle;
+        private final long expiration;
+
+        private ExpiringFact(FactHandle factHandle, long expiration) {
+            this.factHandle = factHandle;
+            this.expiration = expiration;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.drools.yaml.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.facttemplates.Fact;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+/**
+ * Indexes the handles of the facts in a session by their content, so a fact can be retracted providing an
+ * equal one without scanning the whole working memory. Numbers are compared by their value regardless of
+ * their type, so an int in a retraction request matches the same value stored as a long in a typed fact.
+ * Once created the index is kept up to date listening to the insertions and deletions of the session.
+ */
+class FactIndex implements RuleRuntimeEventListener {
+
+    // the value is either a single FactHandle or the IdenticalFacts holding the handles of identical facts
+    private final Map<ContentKey, Object> handles = new HashMap<>();
+
+    private FactIndex() { }
+
+    static FactIndex create(KieSession ksession) {
+        FactIndex index = new FactIndex();
+        // the session lists its handles in no particular order, while identical facts are indexed from the oldest
+        List<FactHandle> factHandles = new ArrayList<>(ksession.getFactHandles());
+        factHandles.sort(Comparator.comparingLong(handle -> ((InternalFactHandle) handle).getId()));
+        for (FactHandle factHandle : factHandles) {
+            index.add(factHandle, ksession.getObject(factHandle));
+        }
+        ksession.addEventListener(index);
+        return index;
+    }
+
+    /**
+     * Returns the handle of the oldest fact in the session with the same content of the given one, or null if none.
+     */
+    FactHandle find(Fact fact) {
+        Object value = handles.get(new ContentKey(fact));
+        if (value instanceof IdenticalFacts) {
+            return ((IdenticalFacts) value).handles.peekFirst();
+        }
+        return (FactHandle) value;
+    }
+
+    int size() {
+        return handles.size();
+    }
+
+    @Override
+    public void objectInserted(ObjectInsertedEvent event) {
+        add(event.getFactHandle(), event.getObject());
+    }
+
+    @Override
+    public void objectUpdated(ObjectUpdatedEvent event) {
+        remove(event.getFactHandle(), event.getOldObject());
+        add(event.getFactHandle(), event.getObject());
+    }
+
+    @Override
+    public void objectDeleted(ObjectDeletedEvent event) {
+        remove(event.getFactHandle(), event.getOldObject());
+    }
+
+    private void add(FactHandle factHandle, Object object) {
+        if (object instanceof Fact) {
+            handles.merge(new ContentKey((Fact) object), factHandle, FactIndex::appendHandle);
+        }
+    }
+
+    private static Object appendHandle(Object existing, Object added) {
+        IdenticalFacts identicalFacts;
+        if (existing instanceof IdenticalFacts) {
+            identicalFacts = (IdenticalFacts) existing;
+        } else {
+            identicalFacts = new IdenticalFacts();
+            identicalFacts.handles.add((FactHandle) existing);
+        }
+        identicalFacts.handles.add((FactHandle) added);
+        return identicalFacts;
+    }
+
+    private void remove(FactHandle factHandle, Object object) {
+        if (object instanceof Fact) {
+            handles.computeIfPresent(new ContentKey((Fact) object), (key, value) -> {
+                if (value instanceof IdenticalFacts) {
+                    IdenticalFacts identicalFacts = (IdenticalFacts) value;
+                    identicalFacts.handles.remove(factHandle);
+                    return identicalFacts.handles.isEmpty() ? null : identicalFacts;
+                }
+                return value == factHandle ? null : value;
+            });
+        }
+    }
+
+    // a type of its own, so the handles of identical facts can be told apart from a single one without unchecked casts
+    private static class IdenticalFacts {
+        private final ArrayDeque<FactHandle> handles = new ArrayDeque<>(4);
+    }
+
+    private static class ContentKey {
+        private final Fact fact;
+        private final int hash;
+
+        private ContentKey(Fact fact) {
+            this.fact = fact;
+            this.hash = contentHash(fact.asMap());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ContentKey)) {
+                return false;
+            }
+            ContentKey other = (ContentKey) obj;
+            return hash == other.hash && sameContent(fact.asMap(), other.fact.asMap());
+        }
+
+        // order independent, like the one of a Map, but normalizing the numbers
+        private static int contentHash(Map<String, Object> content) {
+            int hash = 0;
+            for (Map.Entry<String, Object> entry : content.entrySet()) {
+                hash += entry.getKey().hashCode() ^ valueHash(entry.getValue());
+            }
+            return hash;
+        }
+
+        private static int valueHash(Object value) {
+            if (value instanceof Number) {
+                double d = ((Number) value).doubleValue();
+                return d == Math.rint(d) ? Long.hashCode(((Number) value).longValue()) : Double.hashCode(d);
+            }
+            return value == null ? 0 : value.hashCode();
+        }
+
+        private static boolean sameContent(Map<String, Object> content1, Map<String, Object> content2) {
+            if (content1.size() != content2.size()) {
+                return false;
+            }
+            for (Map.Entry<String, Object> entry : content1.entrySet()) {
+                Object value2 = content2.get(entry.getKey());
+                if (value2 == null && !content2.containsKey(entry.getKey())) {
+                    return false;
+                }
+                if (!sameValue(entry.getValue(), value2)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean sameValue(Object value1, Object value2) {
+            if (value1 instanceof Number && value2 instanceof Number) {
+                if (isIntegral(value1) && isIntegral(value2)) {
+                    return ((Number) value1).longValue() == ((Number) value2).longValue();
+                }
+                return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue()) == 0;
+            }
+            return value1 == null ? value2 == null : value1.equals(value2);
+        }
+
+        private static boolean isIntegral(Object value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.drools.yaml.core;
+
+/**
+ * Thrown when a request doesn't contain valid json facts, i.e. it isn't well formed json or a fact isn't a json object
+ */
+public class InvalidFactException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidFactException(String message) {
+        super(message);
+    }
+
+    public InvalidFactException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,319 @@
+package org.drools.yaml.core;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.drools.yaml.core.domain.Rule;
+import org.drools.yaml.core.domain.RulesSet;
+import org.drools.yaml.core.domain.Source;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.conf.ClockTypeOption;
+
+/**
+ * Shares the compiled KieBase among all the executors created from identical rules sets, so each of them only
+ * needs its own KieSession. A KieBase is kept as long as at least one executor is using it, and while it is kept its
+ * rules set is also written in the {@link RulesSetStore}, so it can be preloaded after a restart.
+ */
+public enum KieBaseCache {
+
+    INSTANCE;
+
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .build();
+
+    private final Map<String, CachedKieBase> kieBases = new HashMap<>();
+
+    public CachedKieBase acquire(RulesSet rulesSet) {
+        return acquire(rulesSet, SessionGenerator.getDefaultParallelism());
+    }
+
+    /**
+     * Returns the cached KieBase of the rules set, taking a reference to it, or compiles it with the given number of threads
+     */
+    public CachedKieBase acquire(RulesSet rulesSet, int parallelism) {
+        String hash = canonicalHash(rulesSet);
+        CachedKieBase cached;
+        boolean toBeStored;
+        synchronized (this) {
+            cached = getOrCreate(hash, rulesSet, parallelism);
+            toBeStored = cached.takeStore();
+            if (cached.preloaded) {
+                // takes over the reference held since the KieBase has been preloaded
+                cached.preloaded = false;
+            } else {
+                cached.references++;
+            }
+        }
+        return compile(cached, toBeStored ? rulesSet : null);
+    }
+
+    /**
+     * Compiles the KieBase of the rules set, unless already cached, and keeps it until the first executor using it
+     * is disposed, so that executor is created without waiting for the compilation.
+     */
+    public CachedKieBase preload(RulesSet rulesSet) {
+        String hash = canonicalHash(rulesSet);
+        CachedKieBase cached;
+        boolean toBeStored;
+        synchronized (this) {
+            cached = getOrCreate(hash, rulesSet);
+            toBeStored = cached.takeStore();
+            if (cached.references == 0) {
+                cached.preloaded = true;
+                cached.preloadedAt = System.nanoTime();
+                cached.references++;
+            }
+        }
+        return compile(cached, toBeStored ? rulesSet : null);
+    }
+
+    /**
+     * Compiles the KieBase of the rules set, unless already cached, and keeps it as long as the application runs,
+     * like for the rulebooks shipped with it.
+     */
+    public CachedKieBase pin(RulesSet rulesSet) {
+        String hash = canonicalHash(rulesSet);
+        CachedKieBase cached;
+        boolean toBeStored;
+        synchronized (this) {
+            cached = getOrCreate(hash, rulesSet);
+            toBeStored = cached.takeStore();
+            cached.references++;
+        }
+        return compile(cached, toBeStored ? rulesSet : null);
+    }
+
+    private CachedKieBase getOrCreate(String hash, RulesSet rulesSet) {
+        return getOrCreate(hash, rulesSet, SessionGenerator.getDefaultParallelism());
+    }
+
+    private CachedKieBase getOrCreate(String hash, RulesSet rulesSet, int parallelism) {
+        return kieBases.computeIfAbsent(hash, h -> new CachedKieBase(h, new SessionGenerator(rulesSet, null, parallelism)));
+    }
+
+    // stores the rules set, if not null, and compiles the KieBase outside of the lock, so they don't block the other rules sets
+    private CachedKieBase compile(CachedKieBase cached, RulesSet toBeStored) {
+        try {
+            if (toBeStored != null) {
+                store(cached, toBeStored);
+            }
+            cached.compile();
+        } catch (RuntimeException e) {
+            release(cached);
+            throw e;
+        }
+        return cached;
+    }
+
+    private void store(CachedKieBase cached, RulesSet rulesSet) {
+        RulesSetStore.INSTANCE.store(cached.hash, rulesSet);
+        synchronized (this) {
+            // evicted while it was being written, when there was still no file to be removed
+            if (!kieBases.containsKey(cached.hash)) {
+                RulesSetStore.INSTANCE.remove(cached.hash);
+            }
+        }
+    }
+
+    /**
+     * Compiles a KieBase that is used only by a single executor, generating its rules with the given generator.
+     */
+    public CachedKieBase compileUnshared(SessionGenerator sessionGenerator) {
+        CachedKieBase unshared = new CachedKieBase(null, sessionGenerator);
+        unshared.references = 1;
+        unshared.compile();
+        return unshared;
+    }
+
+    /**
+     * Returns the given KieBase after having taken another reference to it, for a fork of the executor using it
+     */
+    public synchronized CachedKieBase share(CachedKieBase cached) {
+        cached.references++;
+        return cached;
+    }
+
+    /**
+     * Returns a KieBase that is only used by the executor owning the given one, so it can be modified without affecting
+     * any other executor. This is the same KieBase when that executor is the only one using it, that is removed from
+     * the cache so no other executor will get it from now on.
+     *
+     * @throws UnsupportedOperationException if the KieBase is also used by other executors
+     */
+    public synchronized CachedKieBase detach(CachedKieBase cached) {
+        if (cached.hash == null) {
+            if (cached.references > 1) {
+                throw new UnsupportedOperationException("The rules are shared with the forks of this executor");
+            }
+            return cached;
+        }
+        if (cached.references > 1) {
+            throw new UnsupportedOperationException("The rules are shared with other executors, " +
+                    "the executors whose rules can be modified must be created with editable rules");
+        }
+        kieBases.remove(cached.hash);
+        RulesSetStore.INSTANCE.remove(cached.hash);
+        CachedKieBase detached = new CachedKieBase(null, cached.sessionGenerator);
+        detached.kieBase = cached.kieBase;
+        detached.references = 1;
+        return detached;
+    }
+
+    public synchronized void release(CachedKieBase cached) {
+        // the unshared ones are only counted for the forks of their executor, but never cached
+        if (--cached.references == 0 && cached.hash != null) {
+            kieBases.remove(cached.hash);
+            RulesSetStore.INSTANCE.remove(cached.hash);
+        }
+    }
+
+    /**
+     * Removes the KieBases preloaded more than the given time ago that no executor has used yet, together with their
+     * rules sets in the store, and returns how many they are. The rules sets stored by a previous run that are not
+     * used anymore are so eventually removed.
+     */
+    public synchronized int evictUnclaimedPreloads(long timeout, TimeUnit unit) {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Iterator<CachedKieBase> i = kieBases.values().iterator(); i.hasNext();) {
+            CachedKieBase cached = i.next();
+            if (cached.preloaded && now - cached.preloadedAt >= unit.toNanos(timeout)) {
+                i.remove();
+                RulesSetStore.INSTANCE.remove(cached.hash);
+                cached.preloaded = false;
+                cached.references = 0;
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public synchronized int size() {
+        return kieBases.size();
+    }
+
+    /**
+     * Returns an hash of all and only the parts of the rules set that contribute to its compiled KieBase, so that
+     * identical rules sets always have the same hash regardless of their name or of the bindings generated for them.
+     */
+    public static String canonicalHash(RulesSet rulesSet) {
+        StringBuilder sb = new StringBuilder();
+        if (rulesSet.getSources() != null) {
+            for (Source source : rulesSet.getSources()) {
+                sb.append("schema:").append(source.getSchema()).append('\n');
+            }
+        }
+        for (Rule rule : rulesSet.getHost_rules()) {
+            sb.append(canonicalRule(rule));
+        }
+        return sha256(sb.toString());
+    }
+
+    /**
+     * Returns the parts of the rule contributing to its compiled form, that are the same for identical rules
+     */
+    static String canonicalRule(Rule rule) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("rule:").append(rule.getName()).append('\n');
+        sb.append("condition:").append(rule.getCondition().toCanonicalString()).append('\n');
+        if (rule.getAction() != null) {
+            sb.append("action:").append(rule.getAction().getClass().getName()).append(toCanonicalJson(rule.getAction())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String toCanonicalJson(Object value) {
+        try {
+            return CANONICAL_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class CachedKieBase {
+        private final String hash;
+        private final SessionGenerator sessionGenerator;
+
+        private volatile KieBase kieBase;
+
+        private int references = 0;
+
+        // true while the only reference is the one of its preloading
+        private boolean preloaded = false;
+        private long preloadedAt;
+
+        // true until a thread takes the duty of writing its rules set in the store
+        private boolean storePending = true;
+
+        private CachedKieBase(String hash, SessionGenerator sessionGenerator) {
+            this.hash = hash;
+            this.sessionGenerator = sessionGenerator;
+        }
+
+        // to be called under the lock of the cache
+        private boolean takeStore() {
+            boolean pending = storePending;
+            storePending = false;
+            return pending;
+        }
+
+        private void compile() {
+            if (kieBase == null) {
+                synchronized (this) {
+                    if (kieBase == null) {
+                        kieBase = sessionGenerator.build();
+                    }
+                }
+            }
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public SessionGenerator getSessionGenerator() {
+            return sessionGenerator;
+        }
+
+        public KieBase getKieBase() {
+            return kieBase;
+        }
+
+        public KieSession newKieSession(RulesExecutor rulesExecutor, boolean pseudoClock) {
+            KieSessionConfiguration conf = KieServices.get().newKieSessionConfiguration();
+            conf.setOption(pseudoClock ? ClockTypeOption.PSEUDO : ClockTypeOption.REALTIME);
+            KieSession ksession = kieBase.newKieSession(conf, null);
+            ksession.setGlobal(SessionGenerator.RULES_EXECUTOR_GLOBAL_NAME, rulesExecutor);
+            return ksession;
+        }
+    }
+}
@@ -6,6 +6,20 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 public enum RuleFormat {
     YAML, JSON;
 
+    /**
+     * Returns the format of a file from its extension, .yml or .yaml for YAML and .json for JSON
+     */
+    public static RuleFormat fromFileName(String fileName) {
+        String lowerCase = fileName.toLowerCase();
+        if (lowerCase.endsWith(".yml") || lowerCase.endsWith(".yaml")) {
+            return YAML;
+        }
+        if (lowerCase.endsWith(".json")) {
+            return JSON;
+        }
+        throw new IllegalArgumentException("Unknown format of rules file " + fileName);
+    }
+
     JsonFactory getJsonFactory() {
         return this == YAML ? new YAMLFactory() : new JsonFactory();
     }
@@ -1,32 +1,103 @@
 package org.drools.yaml.core;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+import org.drools.core.common.InternalFactHandle;
 import org.drools.core.facttemplates.Fact;
-import org.drools.model.Prototype;
+import org.drools.yaml.core.domain.Rule;
 import org.drools.yaml.core.domain.RulesSet;
-import org.json.JSONObject;
+import org.drools.yaml.core.rulesmodel.FieldPath;
+import org.kie.api.KieBase;
 import org.kie.api.runtime.KieSession;
 import org.kie.api.runtime.rule.AgendaFilter;
+import org.kie.api.runtime.rule.FactHandle;
 import org.kie.api.runtime.rule.Match;
-
-import static org.drools.modelcompiler.facttemplate.FactFactory.createMapBasedFact;
+import org.kie.api.time.SessionPseudoClock;
 
 public class RulesExecutor {
 
     private static final AtomicLong ID_GENERATOR = new AtomicLong(1);
 
-    private final SessionGenerator sessionGenerator;
-    private final KieSession ksession;
+    // replaced by a KieBase used only by this executor when its rules are modified for the first time
+    private KieBaseCache.CachedKieBase kieBase;
+    private volatile SessionGenerator sessionGenerator;
+    // replaced by a new session when the rules of this executor are modified, see migrateSession
+    private volatile KieSession ksession;
     private final long id;
 
-    private RulesExecutor(SessionGenerator sessionGenerator, long id) {
-        this.sessionGenerator = sessionGenerator;
-        this.ksession = sessionGenerator.build(this);
+    private final ExecutorOptions options;
+
+    private final long compileNanos;
+
+    private final FieldPath fieldPaths = FieldPath.root();
+
+    private final FactDecoder factDecoder;
+
+    private FactExpirer factExpirer;
+
+    private final ExecutorMetrics metrics;
+
+    // the facts moved to a new session and the rules modified since then, see isStale
+    private Set<Object> migratedFacts;
+    private final Set<String> editedRules = new HashSet<>();
+
+    // the rules added or removed since the rules set of this executor has been compiled, see changedRules and currentRulesSet
+    private final Set<String> divergedRules = new HashSet<>();
+    private final Map<String, Rule> addedRules = new LinkedHashMap<>();
+
+    private boolean disposed;
+
+    // when the rules set doesn't need a working memory the facts are deleted as soon as the rules have been fired on them
+    private boolean stateless;
+    private final List<FactHandle> transientFacts = new ArrayList<>();
+
+    private final RulesProfiler profiler;
+
+    // created only when retracting a fact for the first time, so executors never retracting anything don't pay for it
+    private FactIndex factIndex;
+
+    private final Queue<PendingRequest> mailbox = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writer = new ReentrantLock();
+
+    private BatchAgendaFilter activeBatch;
+
+    private RulesExecutor(KieBaseCache.CachedKieBase kieBase, FactExpirer factExpirer, ExecutorOptions options, RulesProfiler profiler, long id, long compileNanos) {
+        this.kieBase = kieBase;
+        this.compileNanos = compileNanos;
+        this.sessionGenerator = kieBase.getSessionGenerator();
+        this.ksession = kieBase.newKieSession(this, options.isPseudoClock());
         this.id = id;
+        this.options = options;
+        // the rules added to an editable executor are matched against the facts already there, so it always keeps them
+        this.stateless = options.isStateless() && !options.isEditableRules() && sessionGenerator.isStateless();
+        this.factDecoder = new FactDecoder(this::createFact, fieldPaths);
+        this.factExpirer = factExpirer;
+        this.metrics = ExecutorMetrics.attach(id, ksession, options);
+        this.profiler = profiler;
+        if (profiler != null) {
+            ksession.addEventListener(profiler);
+        }
     }
 
     public static RulesExecutor createFromYaml(String yaml) {
@@ -50,18 +121,457 @@ public class RulesExecutor {
     }
 
     public static RulesExecutor createRulesExecutor(RulesSet rulesSet) {
-        RulesExecutor rulesExecutor = new RulesExecutor( new SessionGenerator(rulesSet), ID_GENERATOR.getAndIncrement());
+        return createRulesExecutor(rulesSet, ExecutorOptions.DEFAULT);
+    }
+
+    public static RulesExecutor createRulesExecutor(RulesSet rulesSet, ExecutorOptions options) {
+        return createRulesExecutor(rulesSet, options, ID_GENERATOR.getAndIncrement());
+    }
+
+    /**
+     * Returns the id of the executor right away and compiles its rules on the {@link CompilePool}. Until the
+     * compilation completes the executor can't be used, and its progress can be followed through its {@link ExecutorStatus}.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if too many compilations are already waiting
+     */
+    public static ExecutorStatus createRulesExecutorAsync(RulesSet rulesSet, ExecutorOptions options) {
+        ExecutorStatus status = new ExecutorStatus(ID_GENERATOR.getAndIncrement());
+        RulesExecutorContainer.INSTANCE.registerPending(status);
+        try {
+            CompilePool.INSTANCE.submit(() -> {
+                try {
+                    RulesExecutor rulesExecutor = createRulesExecutor(rulesSet, options, status.getId());
+                    status.ready(rulesExecutor.getCompileNanos());
+                    // only removed once the executor is registered, so it is never missing in the meanwhile
+                    RulesExecutorContainer.INSTANCE.removePending(status.getId());
+                } catch (Throwable t) {
+                    // also an Error, e.g. a StackOverflowError compiling a deeply nested condition, must not leave it compiling forever
+                    status.failed(t);
+                    if (t instanceof Error) {
+                        throw (Error) t;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            RulesExecutorContainer.INSTANCE.removePending(status.getId());
+            throw e;
+        }
+        return status;
+    }
+
+    private static RulesExecutor createRulesExecutor(RulesSet rulesSet, ExecutorOptions options, long id) {
+        long start = System.nanoTime();
+        FactExpirer factExpirer = FactExpirer.of(rulesSet);
+        RulesProfiler profiler = options.isProfiling() ? new RulesProfiler() : null;
+        KieBaseCache.CachedKieBase kieBase = compile(rulesSet, options, profiler);
+        RulesExecutor rulesExecutor = new RulesExecutor(kieBase, factExpirer, options, profiler, id, System.nanoTime() - start);
         RulesExecutorContainer.INSTANCE.register(rulesExecutor);
         return rulesExecutor;
     }
 
+    private static KieBaseCache.CachedKieBase compile(RulesSet rulesSet, ExecutorOptions options, RulesProfiler profiler) {
+        return profiler != null || options.isEditableRules() ?
+                KieBaseCache.INSTANCE.compileUnshared( new SessionGenerator(rulesSet, profiler, options.getCompileParallelism()) ) :
+                KieBaseCache.INSTANCE.acquire(rulesSet, options.getCompileParallelism());
+    }
+
     public long getId() {
         return id;
     }
 
-    public void dispose() {
-        RulesExecutorContainer.INSTANCE.dispose(this);
-        ksession.dispose();
+    /**
+     * Returns the time spent getting the KieBase of this executor, that is almost nothing when it was already cached
+     */
+    public long getCompileNanos() {
+        return compileNanos;
+    }
+
+    /**
+     * Disposes this executor and returns false if it was already disposed
+     */
+    public boolean dispose() {
+        if (!RulesExecutorContainer.INSTANCE.dispose(this)) {
+            return false;
+        }
+        writer.lock();
+        try {
+            ksession.dispose();
+            disposed = true;
+        } finally {
+            writer.unlock();
+        }
+        if (metrics != null) {
+            metrics.close();
+        }
+        KieBaseCache.INSTANCE.release(kieBase);
+        return true;
+    }
+
+    /**
+     * Returns the profiler of this executor, or null if it has not been created with profiling enabled
+     */
+    public RulesProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Returns the number of facts currently in the working memory of this executor
+     */
+    public long factsCount() {
+        return ksession.getFactCount();
+    }
+
+    /**
+     * Moves forward the pseudo clock of this executor and retracts the facts expired in the meanwhile
+     */
+    public void advanceTime(long amount, TimeUnit unit) {
+        if (!(ksession.getSessionClock() instanceof SessionPseudoClock)) {
+            throw new UnsupportedOperationException("Executor " + id + " is not using a pseudo clock");
+        }
+        writer.lock();
+        try {
+            ((SessionPseudoClock) ksession.getSessionClock()).advanceTime(amount, unit);
+            expireFacts();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Adds a rule to this executor, or replaces the one with the same name, without recompiling the other rules. Only
+     * the nodes of the new rule not shared with the existing ones are compiled, and the facts already in the session
+     * are matched against it at the next evaluation.
+     *
+     * @throws UnsupportedOperationException if the rules of this executor are shared with other executors, see
+     *         {@link ExecutorOptions#withEditableRules()}
+     */
+    public void addRule(Rule rule) {
+        if (rule.getName() == null) {
+            throw new IllegalArgumentException("Only a rule with a name can be added to an executor");
+        }
+        writer.lock();
+        try {
+            // compiled before touching the session, so an invalid rule leaves this executor unchanged
+            Consumer<KieBase> modification = sessionGenerator.compileRule(ksession.getKieBase(), rule);
+            kieBase = KieBaseCache.INSTANCE.detach(kieBase);
+            migrateSession(kieBase, modification, factExpirer, stateless && SessionGenerator.isStateless(rule));
+            editedRules.add(rule.getName());
+            divergedRules.add(rule.getName());
+            addedRules.put(rule.getName(), rule);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Removes the rule with the given name from this executor, cancelling its matches, and returns false if there
+     * is no such rule.
+     *
+     * @throws UnsupportedOperationException if the rules of this executor are shared with other executors, see
+     *         {@link ExecutorOptions#withEditableRules()}
+     */
+    public boolean removeRule(String ruleName) {
+        writer.lock();
+        try {
+            if (!sessionGenerator.hasRule(ksession.getKieBase(), ruleName)) {
+                return false;
+            }
+            kieBase = KieBaseCache.INSTANCE.detach(kieBase);
+            migrateSession(kieBase, kBase -> sessionGenerator.removeRule(kBase, ruleName), factExpirer, stateless);
+            divergedRules.add(ruleName);
+            addedRules.remove(ruleName);
+            if (metrics != null) {
+                metrics.ruleRemoved(ruleName);
+            }
+            return true;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Replaces the rules set of this executor with a new version, keeping the facts in its working memory. The new
+     * rules set is compiled on the {@link CompilePool} while this executor keeps processing the incoming facts with the
+     * current one. Then the facts are moved to a session of the new rules set in a single pass, during which the
+     * requests to this executor wait in its mailbox, and the following ones are evaluated by the new rules. The facts
+     * already in the working memory only fire the rules that are new or have been changed.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if too many compilations are already waiting
+     */
+    public CompletableFuture<SwapResult> swapRulesSet(RulesSet rulesSet) {
+        CompletableFuture<SwapResult> result = new CompletableFuture<>();
+        CompilePool.INSTANCE.submit(() -> {
+            try {
+                result.complete(swap(rulesSet));
+            } catch (Throwable t) {
+                // also an Error must complete the swap, or its callers would wait for it forever
+                result.completeExceptionally(t);
+                if (t instanceof Error) {
+                    throw (Error) t;
+                }
+            }
+        });
+        return result;
+    }
+
+    private SwapResult swap(RulesSet rulesSet) {
+        long start = System.nanoTime();
+        FactExpirer nextExpirer = FactExpirer.of(rulesSet);
+        KieBaseCache.CachedKieBase next = compile(rulesSet, options, profiler);
+        long compiled = System.nanoTime();
+        KieBaseCache.CachedKieBase previous;
+        int migratedFactsCount;
+        writer.lock();
+        try {
+            if (disposed) {
+                KieBaseCache.INSTANCE.release(next);
+                throw new IllegalStateException("Rules executor " + id + " has been disposed");
+            }
+            previous = kieBase;
+            Set<String> changedRules = changedRules(previous.getSessionGenerator().getRulesSet(), rulesSet);
+            boolean nextStateless = options.isStateless() && !options.isEditableRules() && next.getSessionGenerator().isStateless();
+            try {
+                migratedFactsCount = migrateSession(next, null, nextExpirer, nextStateless);
+            } catch (RuntimeException e) {
+                // this executor is still using the previous rules set
+                KieBaseCache.INSTANCE.release(next);
+                throw e;
+            }
+            editedRules.addAll(changedRules);
+            divergedRules.clear();
+            addedRules.clear();
+            if (metrics != null) {
+                metrics.retainRules(rulesSet.getHost_rules().stream().map(Rule::getName).collect(Collectors.toSet()));
+            }
+        } finally {
+            writer.unlock();
+        }
+        long swapped = System.nanoTime();
+        KieBaseCache.INSTANCE.release(previous);
+        return new SwapResult(compiled - start, swapped - compiled, migratedFactsCount);
+    }
+
+    // the rules of the next rules set that are new or different from the ones with the same name in the current one
+    private Set<String> changedRules(RulesSet current, RulesSet next) {
+        Map<String, String> currentRules = new HashMap<>();
+        for (Rule rule : current.getHost_rules()) {
+            currentRules.put(rule.getName(), KieBaseCache.canonicalRule(rule));
+        }
+        Set<String> changedRules = new HashSet<>();
+        for (Rule rule : next.getHost_rules()) {
+            if (divergedRules.contains(rule.getName()) || !KieBaseCache.canonicalRule(rule).equals(currentRules.get(rule.getName()))) {
+                changedRules.add(rule.getName());
+            }
+        }
+        return changedRules;
+    }
+
+    /**
+     * Moves the facts of this executor to a new session of the target KieBase, returning how many they are. The facts
+     * are reinserted in their original order, after disposing the current session and applying the modification, if
+     * any, to its KieBase: Drools can't update the nodes of a live session when adding or removing rules matching
+     * fact templates, so this is also how the rules of this executor are modified. In the new session the facts
+     * create again the matches of the rules that have been already evaluated on them: those matches are dropped at
+     * the next evaluation, so only the rules added or changed in the meanwhile see the existing facts as new.
+     * When there is no modification the current session is disposed only after the new one has been filled, so a
+     * failure leaves it untouched. Otherwise, if the modification or the reinsertion fails, the facts are moved back
+     * to a new session of the current KieBase before rethrowing the failure, so this executor never remains without
+     * a session.
+     */
+    private int migrateSession(KieBaseCache.CachedKieBase target, Consumer<KieBase> modification, FactExpirer nextExpirer, boolean nextStateless) {
+        KieSession previous = ksession;
+        List<FactHandle> handles = new ArrayList<>(previous.getFactHandles());
+        handles.sort(Comparator.comparingLong(handle -> ((InternalFactHandle) handle).getId()));
+        List<Object> facts = new ArrayList<>(handles.size());
+        handles.forEach(handle -> facts.add(previous.getObject(handle)));
+        boolean pseudoClock = previous.getSessionClock() instanceof SessionPseudoClock;
+        long now = previous.getSessionClock().getCurrentTime();
+        KieBase kBase = previous.getKieBase();
+
+        // converted before touching the current session, so the facts that don't fit the target rules leave this executor unchanged
+        SessionGenerator generator = target.getSessionGenerator();
+        List<Object> adoptedFacts = new ArrayList<>(facts.size());
+        facts.forEach(fact -> adoptedFacts.add(generator.adopt((Fact) fact)));
+
+        if (modification == null) {
+            // the target is another KieBase, so its session is filled while the current one is still untouched
+            KieSession migrated = target.newKieSession(this, pseudoClock);
+            Map<FactHandle, FactHandle> migratedHandles;
+            try {
+                migratedHandles = reinsert(migrated, now, handles, adoptedFacts, nextStateless);
+            } catch (RuntimeException e) {
+                migrated.dispose();
+                throw e;
+            }
+            previous.dispose();
+            switchSession(target, migrated, migratedHandles, nextExpirer);
+            stateless = nextStateless;
+            return facts.size();
+        }
+
+        previous.dispose();
+        KieSession migrated = null;
+        try {
+            modification.accept(kBase);
+            migrated = target.newKieSession(this, pseudoClock);
+            Map<FactHandle, FactHandle> migratedHandles = reinsert(migrated, now, handles, adoptedFacts, nextStateless);
+            switchSession(target, migrated, migratedHandles, nextExpirer);
+            stateless = nextStateless;
+        } catch (RuntimeException e) {
+            // the facts are moved back to a new session of the current KieBase, so this executor keeps working with them
+            if (migrated != null) {
+                migrated.dispose();
+            }
+            KieSession restored = kieBase.newKieSession(this, pseudoClock);
+            switchSession(kieBase, restored, reinsert(restored, now, handles, facts, stateless), factExpirer);
+            throw e;
+        }
+        return facts.size();
+    }
+
+    // inserts the facts in the new session, returning the handles they got there indexed by the ones they had before
+    private Map<FactHandle, FactHandle> reinsert(KieSession target, long now, List<FactHandle> handles, List<Object> facts, boolean transientOnly) {
+        if (target.getSessionClock() instanceof SessionPseudoClock) {
+            ((SessionPseudoClock) target.getSessionClock()).advanceTime(now, TimeUnit.MILLISECONDS);
+        }
+        Map<FactHandle, FactHandle> reinsertedHandles = new IdentityHashMap<>(handles.size() * 2);
+        Set<Object> reinsertedFacts = Collections.newSetFromMap(new IdentityHashMap<>(handles.size() * 2));
+        List<FactHandle> reinsertedTransientFacts = new ArrayList<>();
+        for (int i = 0; i < handles.size(); i++) {
+            Object fact = facts.get(i);
+            FactHandle factHandle = target.insert(fact);
+            reinsertedHandles.put(handles.get(i), factHandle);
+            reinsertedFacts.add(fact);
+            if (transientOnly) {
+                // evaluated once more by the rules added or changed in the meanwhile and then deleted
+                reinsertedTransientFacts.add(factHandle);
+            }
+        }
+        // only replaced once all the facts have been inserted, so a failed insertion doesn't affect the current session
+        migratedFacts = reinsertedFacts;
+        transientFacts.clear();
+        transientFacts.addAll(reinsertedTransientFacts);
+        return reinsertedHandles;
+    }
+
+    private void switchSession(KieBaseCache.CachedKieBase target, KieSession migrated, Map<FactHandle, FactHandle> migratedHandles, FactExpirer nextExpirer) {
+        factExpirer = FactExpirer.migrate(factExpirer, nextExpirer, migratedHandles);
+        factIndex = null;
+        if (profiler != null) {
+            migrated.addEventListener(profiler);
+        }
+        if (metrics != null) {
+            metrics.moveTo(migrated);
+        }
+        kieBase = target;
+        sessionGenerator = target.getSessionGenerator();
+        ksession = migrated;
+    }
+
+    /**
+     * Creates a new executor with the same rules and the same facts of this one, that from then on evolves
+     * independently from it, e.g. to replay hypothetical sequences of events. The fork shares the compiled rules of
+     * this executor and the facts themselves, that are never modified once inserted, so forking only needs to insert
+     * them in a new session. This executor is paused only while its facts are listed, and the fork only fires
+     * the matches that were still pending here, so the facts already evaluated don't fire again the same rules.
+     * The fork of a profiled executor has its own profiler, so it compiles its own copy of the current rules.
+     *
+     * @throws IllegalStateException if this executor has been disposed
+     */
+    public RulesExecutor fork() {
+        KieBaseCache.CachedKieBase shared;
+        RulesSet currentRules;
+        Set<String> forkDivergedRules;
+        Map<String, Rule> forkAddedRules;
+        List<FactHandle> handles;
+        List<Object> facts;
+        long now;
+        FactExpirer trackedFacts;
+        Set<String> pendingRules;
+        writer.lock();
+        try {
+            if (disposed) {
+                throw new IllegalStateException("Rules executor " + id + " has been disposed");
+            }
+            // the compiled rules of a profiled executor report to its profiler, so they can't be shared with the fork
+            shared = profiler == null ? KieBaseCache.INSTANCE.share(kieBase) : null;
+            currentRules = profiler != null ? currentRulesSet() : null;
+            forkDivergedRules = new HashSet<>(divergedRules);
+            forkAddedRules = new LinkedHashMap<>(addedRules);
+            handles = new ArrayList<>(ksession.getFactHandles());
+            handles.sort(Comparator.comparingLong(handle -> ((InternalFactHandle) handle).getId()));
+            facts = new ArrayList<>(handles.size());
+            handles.forEach(handle -> facts.add(ksession.getObject(handle)));
+            now = ksession.getSessionClock().getCurrentTime();
+            trackedFacts = factExpirer != null ? factExpirer.copy() : null;
+            pendingRules = migratedFacts != null ? new HashSet<>(editedRules) : Set.of();
+        } finally {
+            writer.unlock();
+        }
+
+        RulesExecutor fork;
+        if (shared != null) {
+            // the expiration comes from this executor, since the shared KieBase could have been compiled for a rules set differing only in it
+            fork = new RulesExecutor(shared, null, options, null, ID_GENERATOR.getAndIncrement(), 0);
+            fork.divergedRules.addAll(forkDivergedRules);
+            fork.addedRules.putAll(forkAddedRules);
+        } else {
+            long start = System.nanoTime();
+            RulesProfiler forkProfiler = new RulesProfiler();
+            KieBaseCache.CachedKieBase compiled = KieBaseCache.INSTANCE.compileUnshared( new SessionGenerator(currentRules, forkProfiler, options.getCompileParallelism()) );
+            fork = new RulesExecutor(compiled, null, options, forkProfiler, ID_GENERATOR.getAndIncrement(), System.nanoTime() - start);
+            // the facts of this executor don't fit the generator of the recompiled rules
+            SessionGenerator generator = compiled.getSessionGenerator();
+            facts.replaceAll(fact -> generator.adopt((Fact) fact));
+        }
+        fork.stateless = stateless;
+        fork.editedRules.addAll(pendingRules);
+        Map<FactHandle, FactHandle> forkedHandles = fork.reinsert(fork.ksession, now, handles, facts, fork.stateless);
+        fork.factExpirer = trackedFacts != null ? FactExpirer.migrate(trackedFacts, trackedFacts.emptyCopy(), forkedHandles) : null;
+        RulesExecutorContainer.INSTANCE.register(fork);
+        return fork;
+    }
+
+    // the rules set of this executor with the rules added and removed since it has been compiled
+    private RulesSet currentRulesSet() {
+        RulesSet compiled = sessionGenerator.getRulesSet();
+        if (divergedRules.isEmpty()) {
+            return compiled;
+        }
+        List<Rule> rules = new ArrayList<>();
+        for (Rule rule : compiled.getHost_rules()) {
+            if (!divergedRules.contains(rule.getName())) {
+                rules.add(rule);
+            }
+        }
+        rules.addAll(addedRules.values());
+        RulesSet current = new RulesSet();
+        current.setName(compiled.getName());
+        current.setHosts(compiled.getHosts());
+        current.setTtl(compiled.getTtl());
+        current.setSources(compiled.getSources());
+        current.setHost_rules(rules);
+        return current;
+    }
+
+    // a match of a rule not modified since the session has been rebuilt, only made of facts that were already there
+    private boolean isStale(Match match) {
+        if (migratedFacts == null || editedRules.contains(match.getRule().getName())) {
+            return false;
+        }
+        for (Object fact : match.getObjects()) {
+            if (!migratedFacts.contains(fact)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if this executor doesn't keep the facts after having fired the rules on them, see {@link SessionGenerator#isStateless()}
+     */
+    public boolean isStateless() {
+        return stateless;
     }
 
     public long rulesCount() {
@@ -69,63 +579,498 @@ public class RulesExecutor {
     }
 
     public int execute(String json) {
-        return execute( new JSONObject(json).toMap() );
+        return execute( factDecoder.decodeFacts(json) );
+    }
+
+    public int execute(InputStream json) {
+        return execute( factDecoder.decodeFacts(json) );
     }
 
     public int execute(Map<String, Object> factMap) {
-        processFact( factMap );
-        return ksession.fireAllRules();
+        return execute( List.of( toFact(factMap) ) );
+    }
+
+    private int execute(List<Fact> facts) {
+        return submit( facts, true ).size();
     }
 
     public List<Match> process(String json) {
-        return process( new JSONObject(json).toMap() );
+        return process( factDecoder.decodeFacts(json) );
+    }
+
+    public List<Match> process(InputStream json) {
+        return process( factDecoder.decodeFacts(json) );
     }
 
     public List<Match> process(Map<String, Object> factMap) {
-        processFacts( factMap );
-        RegisterOnlyAgendaFilter filter = new RegisterOnlyAgendaFilter();
-        ksession.fireAllRules(filter);
-        return filter.getMatchedRules();
+        List<Fact> facts = new ArrayList<>();
+        toFacts( factMap, facts );
+        return process( facts );
+    }
+
+    private List<Match> process(List<Fact> facts) {
+        return submit( facts, false );
+    }
+
+    /**
+     * Returns the matches that processing the given facts would create, without modifying the working memory: the
+     * facts are inserted, the matches involving them are only registered without firing them, and then the facts are
+     * deleted before any other request is served. Rolling back the live session is much cheaper than evaluating the
+     * facts in a copy of it, and the facts already in the working memory can still be joined with the evaluated ones.
+     */
+    public List<Match> evaluate(String json) {
+        return evaluate( factDecoder.decodeFacts(json) );
+    }
+
+    public List<Match> evaluate(InputStream json) {
+        return evaluate( factDecoder.decodeFacts(json) );
     }
 
-    private void processFacts(Map<String, Object> factMap) {
+    private List<Match> evaluate(List<Fact> facts) {
+        writer.lock();
+        try {
+            DryRunAgendaFilter filter = new DryRunAgendaFilter();
+            List<FactHandle> factHandles = new ArrayList<>(facts.size());
+            for (Fact fact : facts) {
+                // inserted directly, so they are neither tracked for expiration nor deleted as transient facts
+                Fact inserted = sessionGenerator.adopt(fact);
+                factHandles.add(ksession.insert(inserted));
+                filter.evaluatedFacts.add(inserted);
+            }
+            ksession.fireAllRules(filter);
+            factHandles.forEach(ksession::delete);
+            restoreDiscardedMatches(filter.discardedMatches);
+            return filter.matches;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    // the matches still waiting for the next evaluation after the rules have been modified are recreated
+    private void restoreDiscardedMatches(List<Match> discardedMatches) {
+        if (migratedFacts == null || discardedMatches.isEmpty()) {
+            return;
+        }
+        Set<FactHandle> factHandles = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Match match : discardedMatches) {
+            if (!isStale(match)) {
+                factHandles.addAll(match.getFactHandles());
+            }
+        }
+        // the matches of the unmodified rules recreated by the update are stale as before
+        factHandles.forEach(factHandle -> ksession.update(factHandle, ksession.getObject(factHandle)));
+    }
+
+    /**
+     * Enqueues the facts of a request in the mailbox of this executor and waits until they have been processed.
+     * The thread holding the writer lock drains all the requests accumulated in the mailbox in the meanwhile,
+     * inserting them and firing the rules only once, then splits the matches back to the request that caused them.
+     */
+    private List<Match> submit(List<Fact> facts, boolean fireMatches) {
+        PendingRequest request = new PendingRequest(facts, fireMatches);
+        mailbox.add(request);
+        writer.lock();
+        try {
+            if (!request.result.isDone()) {
+                drainMailbox();
+            }
+        } finally {
+            writer.unlock();
+        }
+        try {
+            return request.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void drainMailbox() {
+        List<PendingRequest> drained = new ArrayList<>();
+        for (PendingRequest request = mailbox.poll(); request != null; request = mailbox.poll()) {
+            drained.add(request);
+        }
+        try {
+            expireFacts();
+            List<PendingRequest> requests = new ArrayList<>();
+            for (PendingRequest request : drained) {
+                if (!requests.isEmpty() && requests.get(0).fireMatches != request.fireMatches) {
+                    // requests only processing the facts and the ones also executing the consequences can't share a fire cycle
+                    fireRequests(requests);
+                    requests.clear();
+                }
+                requests.add(request);
+            }
+            if (!requests.isEmpty()) {
+                fireRequests(requests);
+            }
+        } catch (Throwable t) {
+            // the owners of the drained requests wait for them to be completed, so none of them can be left pending
+            drained.forEach( request -> request.result.completeExceptionally(t) );
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+        }
+    }
+
+    private void fireRequests(List<PendingRequest> requests) {
+        BatchAgendaFilter filter = new BatchAgendaFilter(requests.get(0).fireMatches);
+        List<PendingRequest> inserted = new ArrayList<>(requests.size());
+        for (PendingRequest request : requests) {
+            List<Fact> adopted;
+            try {
+                // converted before inserting any of them, so a fact not fitting the schema only fails its own request
+                adopted = adoptAll(request.facts);
+            } catch (RuntimeException e) {
+                request.result.completeExceptionally(e);
+                continue;
+            }
+            int origin = filter.newOrigin();
+            for (Fact fact : adopted) {
+                filter.track( insert(fact), origin );
+            }
+            inserted.add(request);
+        }
+        if (inserted.isEmpty()) {
+            return;
+        }
+        try {
+            fireBatch(filter);
+        } catch (RuntimeException e) {
+            // the requests sharing a fire cycle also share the failure of one of its consequences
+            inserted.forEach( request -> request.result.completeExceptionally(e) );
+            return;
+        }
+        List<List<Match>> matchesByOrigin = filter.getMatchesByOrigin();
+        for (int i = 0; i < inserted.size(); i++) {
+            inserted.get(i).result.complete( matchesByOrigin.get(i) );
+        }
+    }
+
+    private List<Fact> adoptAll(List<Fact> facts) {
+        List<Fact> adopted = new ArrayList<>(facts.size());
+        for (Fact fact : facts) {
+            adopted.add( sessionGenerator.adopt(fact) );
+        }
+        return adopted;
+    }
+
+    /**
+     * Inserts every fact of the batch and then fires the rules only once, returning the matches
+     * grouped by the index of the input fact that completed them.
+     */
+    public List<List<Match>> processBatch(Iterator<Map<String, Object>> factMaps) {
+        return processFactsBatch( new FactsMapIterator(factMaps) );
+    }
+
+    public List<List<Match>> processBatch(InputStream factsStream) {
+        return processFactsBatch( factDecoder.decodeSequence(factsStream) );
+    }
+
+    private List<List<Match>> processFactsBatch(Iterator<Fact> facts) {
+        BatchAgendaFilter filter = new BatchAgendaFilter(false);
+        runBatch(filter, facts);
+        return filter.getMatchesByOrigin();
+    }
+
+    /**
+     * Inserts every fact of the batch, fires the rules only once, also executing their consequences,
+     * and returns the number of executed rules for each input fact.
+     */
+    public List<Integer> executeBatch(Iterator<Map<String, Object>> factMaps) {
+        return executeFactsBatch( new FactsMapIterator(factMaps) );
+    }
+
+    public List<Integer> executeBatch(InputStream factsStream) {
+        return executeFactsBatch( factDecoder.decodeSequence(factsStream) );
+    }
+
+    private List<Integer> executeFactsBatch(Iterator<Fact> facts) {
+        BatchAgendaFilter filter = new BatchAgendaFilter(true);
+        runBatch(filter, facts);
+        List<Integer> firedRules = new ArrayList<>();
+        filter.getMatchesByOrigin().forEach(matches -> firedRules.add(matches.size()));
+        return firedRules;
+    }
+
+    // a batch is already a single fire cycle, so it doesn't go through the mailbox but still needs to be the only writer
+    private void runBatch(BatchAgendaFilter filter, Iterator<Fact> facts) {
+        writer.lock();
+        try {
+            expireFacts();
+            while (facts.hasNext()) {
+                filter.track( insert(facts.next()), filter.newOrigin() );
+            }
+            fireBatch(filter);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    private void fireBatch(BatchAgendaFilter filter) {
+        activeBatch = filter;
+        if (migratedFacts != null) {
+            filter.stale = this::isStale;
+        }
+        try {
+            if (metrics == null) {
+                ksession.fireAllRules(filter);
+                return;
+            }
+            metrics.timeFire( () -> ksession.fireAllRules(filter) );
+            if (!filter.fireMatches) {
+                // the matches that are only registered never reach the listener of the fired ones
+                filter.getMatchesByOrigin().forEach( matches -> matches.forEach( match -> metrics.ruleActivated(match.getRule().getName()) ) );
+            }
+        } finally {
+            activeBatch = null;
+            // all the matches existing when the session has been rebuilt have been evaluated
+            migratedFacts = null;
+            editedRules.clear();
+            deleteTransientFacts();
+        }
+    }
+
+    private void deleteTransientFacts() {
+        for (FactHandle factHandle : transientFacts) {
+            ksession.delete(factHandle);
+        }
+        transientFacts.clear();
+    }
+
+    private void toFacts(Map<String, Object> factMap, List<Fact> facts) {
         if (factMap.size() == 1 && factMap.containsKey("facts")) {
-            ((List<Map<String, Object>>)factMap.get("facts")).forEach(this::processFacts);
+            ((List<Map<String, Object>>)factMap.get("facts")).forEach(f -> toFacts(f, facts));
         } else {
-            processFact(factMap);
+            facts.add(toFact(factMap));
         }
     }
 
+    /**
+     * Inserts a fact from the consequence of a rule, so while this executor is already firing the rules and holding
+     * the writer lock. The lock is reentrant, so it is taken anyway to keep a call from any other thread from racing
+     * with the requests of the mailbox; such a fact is evaluated by the next request. Use {@link #process(Map)} to
+     * insert a fact and fire the rules.
+     */
     public void processFact(Map<String, Object> factMap) {
-        Prototype prototype = sessionGenerator.getPrototype();
-        Fact fact = createMapBasedFact( prototype );
-        populateFact(fact, factMap, "");
-        ksession.insert(fact);
+        writer.lock();
+        try {
+            Fact fact = insertFact(factMap);
+            if (activeBatch != null) {
+                // a fact inserted by a consequence belongs to the same input of the match that fired it
+                activeBatch.track(fact, activeBatch.getCurrentOrigin());
+            }
+        } finally {
+            writer.unlock();
+        }
     }
 
-    private void populateFact(Fact fact, Map<?, ?> value, String fieldName) {
+    /**
+     * Retracts the facts with the same content of the given ones and returns how many of them have been found and retracted.
+     * When there are many identical facts only the oldest of them is retracted.
+     */
+    public int retract(String json) {
+        return retractFacts( factDecoder.decodeFacts(json) );
+    }
+
+    public int retract(InputStream json) {
+        return retractFacts( factDecoder.decodeFacts(json) );
+    }
+
+    /**
+     * Retracts a fact with the same content of the given one, also from the consequence of a rule.
+     */
+    public boolean retractFact(Map<String, Object> factMap) {
+        return retractFacts( List.of( toFact(factMap) ) ) == 1;
+    }
+
+    private int retractFacts(List<Fact> facts) {
+        writer.lock();
+        try {
+            if (factIndex == null) {
+                factIndex = FactIndex.create(ksession);
+            }
+            int retracted = 0;
+            for (Fact fact : facts) {
+                FactHandle factHandle = factIndex.find(fact);
+                if (factHandle != null) {
+                    ksession.delete(factHandle);
+                    retracted++;
+                }
+            }
+            return retracted;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    private Fact insertFact(Map<String, Object> factMap) {
+        return insert(toFact(factMap));
+    }
+
+    // the facts decoded before swapping the rules set are converted for the new one, see swapRulesSet
+    private Fact insert(Fact fact) {
+        Fact inserted = sessionGenerator.adopt(fact);
+        FactHandle factHandle = ksession.insert(inserted);
+        if (stateless) {
+            transientFacts.add(factHandle);
+        } else if (factExpirer != null) {
+            factExpirer.track(factHandle, inserted, ksession.getSessionClock().getCurrentTime());
+        }
+        return inserted;
+    }
+
+    /**
+     * Retracts the expired facts of this executor, unless it is serving a request that will retract them anyway
+     */
+    void expireIdleFacts() {
+        if (!writer.tryLock()) {
+            return;
+        }
+        try {
+            if (!disposed) {
+                expireFacts();
+            }
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    private void expireFacts() {
+        if (factExpirer != null) {
+            factExpirer.expire(ksession, ksession.getSessionClock().getCurrentTime());
+        }
+    }
+
+    private Fact toFact(Map<String, Object> factMap) {
+        Fact fact = createFact();
+        populateFact(fact, factMap, fieldPaths);
+        return fact;
+    }
+
+    private Fact createFact() {
+        return sessionGenerator.createFact();
+    }
+
+    private void populateFact(Fact fact, Map<?, ?> value, FieldPath parent) {
         for (Map.Entry entry : value.entrySet()) {
-            String key = fieldName + entry.getKey();
+            FieldPath fieldPath = parent.child(entry.getKey().toString());
             if (entry.getValue() instanceof Map) {
-                populateFact(fact, (Map) entry.getValue(), key + ".");
+                populateFact(fact, (Map) entry.getValue(), fieldPath);
             } else {
-                fact.set(key, entry.getValue());
+                fact.set(fieldPath.getPath(), entry.getValue());
             }
         }
     }
 
-    private static class RegisterOnlyAgendaFilter implements AgendaFilter {
+    private static class PendingRequest {
 
-        private final List<Match> matchedRules = new ArrayList<>();
+        private final List<Fact> facts;
+        private final boolean fireMatches;
+        private final CompletableFuture<List<Match>> result = new CompletableFuture<>();
+
+        private PendingRequest(List<Fact> facts, boolean fireMatches) {
+            this.facts = facts;
+            this.fireMatches = fireMatches;
+        }
+    }
+
+    private class FactsMapIterator implements Iterator<Fact> {
+
+        private final Iterator<Map<String, Object>> factMaps;
+
+        private FactsMapIterator(Iterator<Map<String, Object>> factMaps) {
+            this.factMaps = factMaps;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return factMaps.hasNext();
+        }
+
+        @Override
+        public Fact next() {
+            return toFact( factMaps.next() );
+        }
+    }
+
+    private static class DryRunAgendaFilter implements AgendaFilter {
+
+        private final Set<Object> evaluatedFacts = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Match> matches = new ArrayList<>();
+        private final List<Match> discardedMatches = new ArrayList<>();
 
         @Override
         public boolean accept(Match match) {
-            matchedRules.add(match);
+            for (Object fact : match.getObjects()) {
+                if (evaluatedFacts.contains(fact)) {
+                    matches.add(match);
+                    return false;
+                }
+            }
+            discardedMatches.add(match);
             return false;
         }
+    }
+
+    private static class BatchAgendaFilter implements AgendaFilter {
+
+        private final boolean fireMatches;
+        private final Map<Object, Integer> factOrigins = new IdentityHashMap<>();
+        private final List<List<Match>> matchesByOrigin = new ArrayList<>();
+        private int currentOrigin = -1;
+        private Predicate<Match> stale;
+
+        private BatchAgendaFilter(boolean fireMatches) {
+            this.fireMatches = fireMatches;
+        }
+
+        int newOrigin() {
+            matchesByOrigin.add(new ArrayList<>());
+            return matchesByOrigin.size() - 1;
+        }
+
+        void track(Object fact, int origin) {
+            if (origin >= 0) {
+                factOrigins.put(fact, origin);
+            }
+        }
+
+        int getCurrentOrigin() {
+            return currentOrigin;
+        }
+
+        @Override
+        public boolean accept(Match match) {
+            if (stale != null && stale.test(match)) {
+                return false;
+            }
+            currentOrigin = originOf(match);
+            if (currentOrigin >= 0) {
+                matchesByOrigin.get(currentOrigin).add(match);
+            }
+            return fireMatches;
+        }
+
+        // a match joining facts of different inputs is reported for the last of them, i.e. the one that completed it
+        private int originOf(Match match) {
+            int origin = -1;
+            for (Object fact : match.getObjects()) {
+                Integer factOrigin = factOrigins.get(fact);
+                if (factOrigin != null && factOrigin > origin) {
+                    origin = factOrigin;
+                }
+            }
+            return origin >= 0 ? origin : matchesByOrigin.size() - 1;
+        }
 
-        public List<Match> getMatchedRules() {
-            return matchedRules;
+        List<List<Match>> getMatchesByOrigin() {
+            return matchesByOrigin;
         }
     }
 }
@@ -1,23 +1,116 @@
 package org.drools.yaml.core;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.NotFoundException;
+
+import org.drools.yaml.core.util.StripedLongMap;
 
 public enum RulesExecutorContainer {
 
     INSTANCE;
 
-    private Map<Long, RulesExecutor> rulesExecutors = new HashMap<>();
+    private final StripedLongMap<RulesExecutor> rulesExecutors = new StripedLongMap<>();
+
+    // how long the status of a failed creation is kept, so that it can be reported
+    private static final long FAILED_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    // the executors created asynchronously that are still compiling or that failed
+    private final StripedLongMap<ExecutorStatus> pending = new StripedLongMap<>();
 
     public void register(RulesExecutor rulesExecutor) {
         rulesExecutors.put(rulesExecutor.getId(), rulesExecutor);
     }
 
-    public void dispose(RulesExecutor rulesExecutor) {
-        rulesExecutors.remove(rulesExecutor.getId());
+    void registerPending(ExecutorStatus status) {
+        evictFailed(System.nanoTime() - FAILED_RETENTION_NANOS);
+        pending.put(status.getId(), status);
+    }
+
+    /**
+     * Forgets the creations failed before the given time and returns how many they are
+     */
+    int evictFailed(long nanoTime) {
+        int evicted = 0;
+        for (ExecutorStatus status : pending.values()) {
+            if (status.failedBefore(nanoTime) && pending.remove(status.getId()) != null) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    void removePending(long id) {
+        pending.remove(id);
+    }
+
+    /**
+     * Removes the executor from this container and returns true if it was registered
+     */
+    public boolean dispose(RulesExecutor rulesExecutor) {
+        return rulesExecutors.remove(rulesExecutor.getId()) != null;
+    }
+
+    /**
+     * Returns the executor with the given id, or null if there is none
+     *
+     * @throws ExecutorNotReadyException if the executor is still compiling its rules
+     */
+    public RulesExecutor get(long id) {
+        RulesExecutor rulesExecutor = rulesExecutors.get(id);
+        if (rulesExecutor == null) {
+            ExecutorStatus status = pending.get(id);
+            if (status != null && status.getStatus() == ExecutorStatus.Status.COMPILING) {
+                throw new ExecutorNotReadyException(id);
+            }
+        }
+        return rulesExecutor;
+    }
+
+    /**
+     * Returns the executor with the given id
+     *
+     * @throws NotFoundException if there is no such executor
+     * @throws ExecutorNotReadyException if the executor is still compiling its rules
+     */
+    public RulesExecutor getOrThrow(long id) {
+        RulesExecutor rulesExecutor = get(id);
+        if (rulesExecutor == null) {
+            throw new NotFoundException("Rules executor " + id + " not found");
+        }
+        return rulesExecutor;
+    }
+
+    /**
+     * Returns the status of the creation of the executor with the given id, or null if there is no such executor
+     */
+    public ExecutorStatus getStatus(long id) {
+        RulesExecutor rulesExecutor = rulesExecutors.get(id);
+        return rulesExecutor != null ? ExecutorStatus.of(rulesExecutor) : pending.get(id);
+    }
+
+    /**
+     * Returns a snapshot of the executors currently registered
+     */
+    public List<RulesExecutor> getAll() {
+        return rulesExecutors.values();
+    }
+
+    public int size() {
+        return rulesExecutors.size();
     }
 
-    public RulesExecutor get(Long id) {
-        return rulesExecutors.get(id);
+    /**
+     * Disposes all the executors currently registered and returns how many of them have been disposed
+     */
+    public int disposeAll() {
+        int disposed = 0;
+        for (RulesExecutor rulesExecutor : rulesExecutors.values()) {
+            if (rulesExecutor.dispose()) {
+                disposed++;
+            }
+        }
+        return disposed;
     }
 }
@@ -0,0 +1,152 @@
+package org.drools.yaml.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.drools.model.PrototypeFact;
+import org.drools.model.functions.Predicate1;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCancelledEvent;
+import org.kie.api.event.rule.MatchCreatedEvent;
+
+/**
+ * Collects, for a single executor, the matches created, cancelled and fired by each rule, the time spent
+ * executing their consequences and how many times each constraint has been evaluated. The constraints are
+ * counted by wrapping their predicates, so profiling requires a KieBase compiled on purpose for the executor.
+ */
+public class RulesProfiler extends DefaultAgendaEventListener {
+
+    private final Map<String, RuleStats> rules = new ConcurrentHashMap<>();
+    private final Map<String, ConstraintStats> constraints = new ConcurrentHashMap<>();
+
+    Predicate1<PrototypeFact> countingPredicate(String expression, Predicate1<PrototypeFact> predicate) {
+        ConstraintStats stats = constraints.computeIfAbsent(expression, ConstraintStats::new);
+        return fact -> {
+            boolean result = predicate.test(fact);
+            stats.evaluations.increment();
+            if (result) {
+                stats.matches.increment();
+            }
+            return result;
+        };
+    }
+
+    void consequenceExecuted(String ruleName, long nanos) {
+        ruleStats(ruleName).consequenceNanos.add(nanos);
+    }
+
+    @Override
+    public void matchCreated(MatchCreatedEvent event) {
+        ruleStats(event.getMatch().getRule().getName()).matchesCreated.increment();
+    }
+
+    @Override
+    public void matchCancelled(MatchCancelledEvent event) {
+        ruleStats(event.getMatch().getRule().getName()).matchesCancelled.increment();
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        ruleStats(event.getMatch().getRule().getName()).fired.increment();
+    }
+
+    private RuleStats ruleStats(String ruleName) {
+        return rules.computeIfAbsent(ruleName, RuleStats::new);
+    }
+
+    public void reset() {
+        rules.values().forEach(RuleStats::reset);
+        constraints.values().forEach(ConstraintStats::reset);
+    }
+
+    /**
+     * Returns the rules sorted by the time spent in their consequences, most expensive first
+     */
+    public List<RuleStats> getRules() {
+        List<RuleStats> sorted = new ArrayList<>(rules.values());
+        sorted.sort(Comparator.comparingLong((RuleStats r) -> r.consequenceNanos.sum())
+                .thenComparingLong(r -> r.matchesCreated.sum()).reversed());
+        return sorted;
+    }
+
+    /**
+     * Returns the constraints sorted by their number of evaluations, most evaluated first
+     */
+    public List<ConstraintStats> getConstraints() {
+        List<ConstraintStats> sorted = new ArrayList<>(constraints.values());
+        sorted.sort(Comparator.comparingLong((ConstraintStats c) -> c.evaluations.sum()).reversed());
+        return sorted;
+    }
+
+    public static class RuleStats {
+        private final String name;
+        private final LongAdder matchesCreated = new LongAdder();
+        private final LongAdder matchesCancelled = new LongAdder();
+        private final LongAdder fired = new LongAdder();
+        private final LongAdder consequenceNanos = new LongAdder();
+
+        private RuleStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getMatches_created() {
+            return matchesCreated.sum();
+        }
+
+        public long getMatches_cancelled() {
+            return matchesCancelled.sum();
+        }
+
+        public long getFired() {
+            return fired.sum();
+        }
+
+        public double getConsequence_time_ms() {
+            return consequenceNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        private void reset() {
+            matchesCreated.reset();
+            matchesCancelled.reset();
+            fired.reset();
+            consequenceNanos.reset();
+        }
+    }
+
+    public static class ConstraintStats {
+        private final String expression;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+
+        private ConstraintStats(String expression) {
+            this.expression = expression;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        public long getMatches() {
+            return matches.sum();
+        }
+
+        private void reset() {
+            evaluations.reset();
+            matches.reset();
+        }
+    }
+}
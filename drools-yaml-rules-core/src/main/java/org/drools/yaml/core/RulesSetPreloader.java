@@ -0,0 +1,103 @@
+package org.drools.yaml.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+import io.quarkus.runtime.StartupEvent;
+import org.drools.yaml.core.domain.RulesSet;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Compiles at startup the KieBases of the rulebooks shipped with the application, listed as classpath resources by
+ * the {@code drools.yaml.rulebooks} configuration property and kept for as long as the application runs, and of the
+ * rules sets found in the {@link RulesSetStore}, i.e. the ones in use before the last shutdown. This way the executors
+ * created for them don't have to wait for their compilation.
+ */
+@ApplicationScoped
+public class RulesSetPreloader {
+
+    private static final Logger LOG = Logger.getLogger(RulesSetPreloader.class);
+
+    @ConfigProperty(name = "drools.yaml.rulebooks")
+    Optional<List<String>> rulebooks;
+
+    @ConfigProperty(name = "drools.yaml.store.preload-timeout", defaultValue = "1h")
+    String preloadTimeout;
+
+    void onStart(@Observes StartupEvent event) {
+        if (rulebooks.isPresent()) {
+            long start = System.nanoTime();
+            for (String rulebook : rulebooks.get()) {
+                KieBaseCache.INSTANCE.pin(readRulebook(rulebook));
+            }
+            LOG.infof("Compiled %d rulebooks in %d ms, ready %d ms after the start of the JVM", rulebooks.get().size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+
+        if (RulesSetStore.INSTANCE.isEnabled()) {
+            preloadStore();
+        }
+    }
+
+    private void preloadStore() {
+        long start = System.nanoTime();
+        List<RulesSet> rulesSets = RulesSetStore.INSTANCE.load();
+        long loaded = System.nanoTime();
+        for (RulesSet rulesSet : rulesSets) {
+            try {
+                KieBaseCache.INSTANCE.preload(rulesSet);
+            } catch (RuntimeException e) {
+                // the executors of this rules set will fail again when created, but the others can still be preloaded
+                LOG.warnf(e, "Cannot preload rules set %s", rulesSet.getName());
+            }
+        }
+        long compiled = System.nanoTime();
+        LOG.infof("Preloaded %d rules sets from %s: read in %d ms, compiled in %d ms", rulesSets.size(),
+                RulesSetStore.INSTANCE.getDirectory(), TimeUnit.NANOSECONDS.toMillis(loaded - start), TimeUnit.NANOSECONDS.toMillis(compiled - loaded));
+
+        if (!rulesSets.isEmpty()) {
+            scheduleEviction(FactExpirer.parseDuration(preloadTimeout));
+        }
+    }
+
+    // the rules sets are only preloaded at startup, so the ones still unclaimed after the timeout are not used anymore
+    private static void scheduleEviction(long timeoutMillis) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rules-set-preload-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.schedule(() -> {
+            int evicted = KieBaseCache.INSTANCE.evictUnclaimedPreloads(timeoutMillis, TimeUnit.MILLISECONDS);
+            LOG.infof("Evicted %d preloaded rules sets not used by any executor", evicted);
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        scheduler.shutdown();
+    }
+
+    /**
+     * Reads a rulebook in the core notation from a classpath resource, in the format given by its extension
+     */
+    static RulesSet readRulebook(String resource) {
+        try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IllegalArgumentException("Rulebook " + resource + " not found in the classpath");
+            }
+            String text = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+            return RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.fromFileName(resource), text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.drools.yaml.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.drools.core.util.Drools;
+import org.drools.yaml.core.domain.Rule;
+import org.drools.yaml.core.domain.RulesSet;
+import org.drools.yaml.core.domain.actions.RuleAction;
+import org.drools.yaml.core.domain.conditions.Condition;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import static org.drools.yaml.core.domain.Binding.isGeneratedBinding;
+
+/**
+ * Keeps on the local disk the rules sets whose KieBases are in use, so that after a restart they can be compiled
+ * before the executors are created again. A KieBase is made of the lambdas generated for its rules, that cannot be
+ * serialized, so what is stored is the rules set itself, written in the core json notation in a file named after its
+ * canonical hash, inside a directory named after the version of the engine compiling it. The store is disabled unless
+ * the {@code drools.yaml.store.dir} configuration property is set.
+ */
+public enum RulesSetStore {
+
+    INSTANCE;
+
+    public static final String DIRECTORY_PROPERTY = "drools.yaml.store.dir";
+
+    // to be incremented when a change to the compilation makes the rules sets stored by a previous version unusable
+    private static final int FORMAT_VERSION = 1;
+
+    public static final String ENGINE_VERSION = Drools.getFullVersion() + "-" + FORMAT_VERSION;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private volatile Path directory = readDirectory();
+
+    /**
+     * Returns the directory where the rules sets of the current engine version are stored, or null if the store is disabled
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the root directory of the store, or disables it if null
+     */
+    public void setDirectory(Path root) {
+        this.directory = root != null ? root.resolve(ENGINE_VERSION) : null;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    private static Path readDirectory() {
+        String root;
+        try {
+            root = ConfigProvider.getConfig().getOptionalValue(DIRECTORY_PROPERTY, String.class).orElse(null);
+        } catch (RuntimeException e) {
+            // no configuration available, e.g. when used outside of quarkus
+            root = System.getProperty(DIRECTORY_PROPERTY);
+        }
+        return root != null ? Paths.get(root).resolve(ENGINE_VERSION) : null;
+    }
+
+    /**
+     * Stores the rules set with the given canonical hash, unless it is already stored. Returns false when the rules set
+     * cannot be written in the core notation, like the ones with the actions of another notation or with pattern bindings.
+     */
+    boolean store(String hash, RulesSet rulesSet) {
+        Path dir = directory;
+        if (dir == null) {
+            return false;
+        }
+        Path file = dir.resolve(hash + ".json");
+        if (Files.exists(file)) {
+            return true;
+        }
+        String json = toCoreJson(rulesSet);
+        if (json == null || !hash.equals(KieBaseCache.canonicalHash(RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, json)))) {
+            return false;
+        }
+        try {
+            Files.createDirectories(dir);
+            // written aside and then moved, so a crash never leaves a truncated rules set
+            Path tmp = Files.createTempFile(dir, hash, ".tmp");
+            Files.write(tmp, json.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void remove(String hash) {
+        Path dir = directory;
+        if (dir == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(dir.resolve(hash + ".json"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads all the rules sets stored by the current engine version, mapping their files in memory
+     */
+    public List<RulesSet> load() {
+        Path dir = directory;
+        List<RulesSet> rulesSets = new ArrayList<>();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return rulesSets;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : files) {
+                rulesSets.add( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, read(file)) );
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rulesSets;
+    }
+
+    private static String read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    }
+
+    /**
+     * Writes the rules set in the core json notation, or returns null if it cannot be expressed in it
+     */
+    static String toCoreJson(RulesSet rulesSet) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("name", rulesSet.getName());
+        root.put("hosts", rulesSet.getHosts());
+        root.put("ttl", rulesSet.getTtl());
+        if (rulesSet.getSources() != null) {
+            root.set("sources", MAPPER.valueToTree(rulesSet.getSources()));
+        }
+        ArrayNode rules = root.putArray("host_rules");
+        for (Rule rule : rulesSet.getHost_rules()) {
+            JsonNode condition = toCoreJson(rule.getCondition());
+            if (condition == null || (rule.getAction() != null && !(rule.getAction() instanceof RuleAction))) {
+                return null;
+            }
+            ObjectNode ruleNode = rules.addObject();
+            ruleNode.put("name", rule.getName());
+            ruleNode.set("condition", condition);
+            if (rule.getAction() != null) {
+                ruleNode.set("action", MAPPER.valueToTree(rule.getAction()));
+            }
+        }
+        try {
+            return MAPPER.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static JsonNode toCoreJson(Condition condition) {
+        switch (condition.getType()) {
+            case ALL:
+            case ANY:
+                ArrayNode subConditions = MAPPER.createArrayNode();
+                for (Condition subCondition : condition.getType() == Condition.Type.ALL ? condition.getAll() : condition.getAny()) {
+                    JsonNode node = toCoreJson(subCondition);
+                    if (node == null) {
+                        return null;
+                    }
+                    subConditions.add(node);
+                }
+                ObjectNode node = MAPPER.createObjectNode();
+                node.set(condition.getType() == Condition.Type.ALL ? "all" : "any", subConditions);
+                return node;
+            default:
+                String binding = condition.getPatternBinding();
+                return binding == null || isGeneratedBinding(binding) ? TextNode.valueOf(condition.getSingle()) : null;
+        }
+    }
+}
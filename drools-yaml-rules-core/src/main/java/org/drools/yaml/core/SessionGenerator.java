@@ -1,69 +1,361 @@
 package org.drools.yaml.core;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.drools.core.definitions.InternalKnowledgePackage;
+import org.drools.core.definitions.rule.impl.RuleImpl;
+import org.drools.core.facttemplates.Fact;
+import org.drools.core.facttemplates.FactTemplate;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.kiesession.rulebase.KnowledgeBaseFactory;
+import org.drools.model.Drools;
+import org.drools.model.Global;
+import org.drools.model.Index.ConstraintType;
 import org.drools.model.Prototype;
 import org.drools.model.PrototypeDSL;
+import org.drools.model.PrototypeFact;
+import org.drools.model.functions.Block2;
+import org.drools.model.functions.Predicate1;
 import org.drools.model.impl.ModelImpl;
+import org.drools.model.impl.RuleBuilder;
 import org.drools.model.view.CombinedExprViewItem;
 import org.drools.model.view.ViewItem;
-import org.drools.modelcompiler.builder.KieBaseBuilder;
+import org.drools.modelcompiler.KiePackagesBuilder;
 import org.drools.yaml.core.domain.Rule;
 import org.drools.yaml.core.domain.RulesSet;
+import org.drools.yaml.core.domain.actions.RuleAction;
+import org.drools.yaml.core.domain.actions.RunPlaybook;
 import org.drools.yaml.core.domain.conditions.Condition;
+import org.drools.yaml.core.rulesmodel.ArrayBasedFact;
+import org.drools.yaml.core.rulesmodel.FactSchema;
 import org.drools.yaml.core.rulesmodel.ParsedCondition;
 import org.drools.yaml.core.rulesmodel.PrototypeFactory;
+import org.drools.yaml.core.rulesmodel.UntypedConstraints;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.kie.api.KieBase;
-import org.kie.api.runtime.KieSession;
+import org.kie.api.KieBaseConfiguration;
+import org.kie.api.KieServices;
 
-import static org.drools.model.DSL.execute;
+import static org.drools.model.DSL.globalOf;
+import static org.drools.model.DSL.on;
+import static org.drools.model.PatternDSL.reactOn;
 import static org.drools.model.PatternDSL.rule;
 import static org.drools.model.PrototypeDSL.protoPattern;
 import static org.drools.model.PrototypeDSL.variable;
-import static org.drools.yaml.core.rulesmodel.ParsedCondition.parse;
+import static org.drools.modelcompiler.facttemplate.FactFactory.createMapBasedFact;
+import static org.drools.modelcompiler.facttemplate.FactFactory.prototypeToFactTemplate;
+import static org.drools.yaml.core.domain.Binding.generateBinding;
 
 public class SessionGenerator {
 
     public static final String PROTOTYPE_NAME = "DROOLS_PROTOTYPE";
 
-    private static int counter = 0;
+    public static final String RULES_EXECUTOR_GLOBAL_NAME = "rulesExecutor";
 
-    private final PrototypeFactory prototypeFactory = new PrototypeFactory();
+    // the consequences get the executor from the session, so the same KieBase can be shared among different executors
+    private static final Global<RulesExecutor> RULES_EXECUTOR_GLOBAL = globalOf(RulesExecutor.class, RuleBuilder.DEFAULT_PACKAGE, RULES_EXECUTOR_GLOBAL_NAME);
+
+    public static final String PARALLELISM_PROPERTY = "drools.yaml.compile.parallelism";
+
+    // below this number of rules per thread splitting the compilation costs more than it saves
+    private static final int MIN_RULES_PER_THREAD = 100;
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    private static final int DEFAULT_PARALLELISM = readParallelism();
+
+    private final PrototypeFactory prototypeFactory;
+
+    private final RulesProfiler profiler;
 
     private final RulesSet rulesSet;
 
+    private final FactSchema schema;
+
+    private final FactTemplate schemaFactTemplate;
+
+    private final UntypedConstraints untypedConstraints;
+
+    private final int parallelism;
+
+    private volatile Boolean stateless;
+
     public SessionGenerator(RulesSet rulesSet) {
+        this(rulesSet, null);
+    }
+
+    /**
+     * Creates a generator whose rules also report to the given profiler the evaluations of their constraints
+     * and the time spent in their consequences.
+     */
+    public SessionGenerator(RulesSet rulesSet, RulesProfiler profiler) {
+        this(rulesSet, profiler, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Creates a generator compiling the rules set with the given number of threads, where 1 compiles it sequentially
+     */
+    public SessionGenerator(RulesSet rulesSet, RulesProfiler profiler, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid compilation parallelism: " + parallelism);
+        }
         this.rulesSet = rulesSet;
+        this.profiler = profiler;
+        this.parallelism = parallelism;
+        this.schema = FactSchema.of(rulesSet.getSources());
+        this.prototypeFactory = new PrototypeFactory(schema);
+        this.schemaFactTemplate = schema != null ? schema.toFactTemplate( getPrototype() ) : null;
+        this.untypedConstraints = new UntypedConstraints(schema);
+    }
+
+    /**
+     * Returns the number of threads used by default to compile a rules set, set with the {@code drools.yaml.compile.parallelism}
+     * configuration property and otherwise the number of available processors
+     */
+    public static int getDefaultParallelism() {
+        return DEFAULT_PARALLELISM;
+    }
+
+    private static int readParallelism() {
+        int defaultParallelism = Runtime.getRuntime().availableProcessors();
+        try {
+            return ConfigProvider.getConfig().getOptionalValue(PARALLELISM_PROPERTY, Integer.class).orElse(defaultParallelism);
+        } catch (RuntimeException e) {
+            // no configuration available, e.g. when used outside of quarkus
+            return Integer.getInteger(PARALLELISM_PROPERTY, defaultParallelism);
+        }
+    }
+
+    /**
+     * Returns true if each fact can be evaluated in isolation from all the others, so an executor of this rules set
+     * doesn't need to keep the facts after having fired the rules on them: every rule matches a single fact and no
+     * rule inserts or retracts facts.
+     */
+    public boolean isStateless() {
+        if (stateless == null) {
+            stateless = rulesSet.getHost_rules().stream().allMatch(SessionGenerator::isStateless);
+        }
+        return stateless;
+    }
+
+    static boolean isStateless(Rule rule) {
+        if (!isSinglePattern(rule.getCondition())) {
+            return false;
+        }
+        if (rule.getAction() instanceof RuleAction) {
+            RuleAction action = (RuleAction) rule.getAction();
+            return action.getAssert_fact() == null && action.getRetract_fact() == null && action.getPost_event() == null;
+        }
+        return rule.getAction() == null || rule.getAction() instanceof RunPlaybook;
+    }
+
+    // the branches of an any are alternative patterns, while the conditions of an all are joined
+    private static boolean isSinglePattern(Condition condition) {
+        switch (condition.getType()) {
+            case ANY:
+                return condition.getAny().stream().allMatch(SessionGenerator::isSinglePattern);
+            case ALL:
+                return condition.getAll().size() == 1 && isSinglePattern(condition.getAll().get(0));
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Builds the KieBase of the rules set. The rules are split in contiguous chunks, each converted into the
+     * executable model and compiled into its own package by a different thread, and then all the packages, having
+     * the same name, are merged into a single KieBase. Drools builds the rete network of the KieBase sequentially.
+     * The calling thread compiles the first chunk, while the others are compiled by the threads of {@link ChunkCompiler}.
+     */
+    public KieBase build() {
+        List<Rule> rules = rulesSet.getHost_rules();
+        int threads = Math.max(1, Math.min(parallelism, rules.size() / MIN_RULES_PER_THREAD));
+        KieBaseConfiguration conf = KieServices.get().newKieBaseConfiguration();
+
+        List<InternalKnowledgePackage> packages = new ArrayList<>();
+        if (threads == 1) {
+            packages.addAll(compilePackages(conf, rules));
+        } else {
+            int chunkSize = (rules.size() + threads - 1) / threads;
+            List<Future<Collection<InternalKnowledgePackage>>> chunks = new ArrayList<>();
+            try {
+                for (int i = chunkSize; i < rules.size(); i += chunkSize) {
+                    List<Rule> chunk = rules.subList(i, Math.min(i + chunkSize, rules.size()));
+                    chunks.add(ChunkCompiler.EXECUTOR.submit(() -> compilePackages(conf, chunk)));
+                }
+                Collection<InternalKnowledgePackage> firstChunk = compilePackages(conf, rules.subList(0, chunkSize));
+                int loadOrderOffset = shiftLoadOrder(firstChunk, 0);
+                packages.addAll(firstChunk);
+                for (Future<Collection<InternalKnowledgePackage>> chunk : chunks) {
+                    Collection<InternalKnowledgePackage> chunkPackages = getCompiled(chunk);
+                    loadOrderOffset = shiftLoadOrder(chunkPackages, loadOrderOffset);
+                    packages.addAll(chunkPackages);
+                }
+            } finally {
+                // a failed build doesn't leave its other chunks compiling for nothing
+                chunks.forEach(chunk -> chunk.cancel(true));
+            }
+        }
+
+        InternalKnowledgeBase kBase = KnowledgeBaseFactory.newKnowledgeBase(conf);
+        kBase.addPackages(packages);
+        return kBase;
+    }
+
+    /**
+     * Compiles the rule and returns the modification adding it to a KieBase built by this generator, after removing
+     * the rule with the same name if any. Drools only adds the nodes of the rule that are not shared with the existing
+     * ones. The modified KieBase must have no sessions, since Drools can't propagate their fact templates to the new nodes.
+     */
+    Consumer<KieBase> compileRule(KieBase kieBase, Rule rule) {
+        InternalKnowledgeBase kBase = (InternalKnowledgeBase) kieBase;
+        Collection<InternalKnowledgePackage> packages = compilePackages(kBase.getConfiguration(), List.of(rule));
+        // fires after all the existing rules in case of ties, as if it was the last rule of the rules set
+        shiftLoadOrder(packages, maxLoadOrder(kBase) + 1);
+        return modified -> {
+            removeRule(modified, rule.getName());
+            ((InternalKnowledgeBase) modified).addPackages(packages);
+        };
+    }
+
+    /**
+     * Removes the rule with the given name from a KieBase built by this generator, together with its nodes that are
+     * not shared with other rules, and returns false if there is no such rule.
+     */
+    boolean removeRule(KieBase kieBase, String ruleName) {
+        if (!hasRule(kieBase, ruleName)) {
+            return false;
+        }
+        kieBase.removeRule(RuleBuilder.DEFAULT_PACKAGE, ruleName);
+        return true;
+    }
+
+    boolean hasRule(KieBase kieBase, String ruleName) {
+        return kieBase.getRule(RuleBuilder.DEFAULT_PACKAGE, ruleName) != null;
+    }
+
+    private static int maxLoadOrder(InternalKnowledgeBase kBase) {
+        int max = -1;
+        for (org.kie.api.definition.KiePackage pkg : kBase.getKiePackages()) {
+            for (org.kie.api.definition.rule.Rule rule : pkg.getRules()) {
+                max = Math.max(max, ((RuleImpl) rule).getLoadOrder());
+            }
+        }
+        return max;
     }
 
-    public KieSession build(RulesExecutor rulesExecutor) {
+    private Collection<InternalKnowledgePackage> compilePackages(KieBaseConfiguration conf, List<Rule> rules) {
         ModelImpl model = new ModelImpl();
-        rulesSet.getHost_rules().stream().map(rule -> toExecModelRule(rule, rulesExecutor)).forEach(model::addRule);
-        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel( model );
-        return kieBase.newKieSession();
+        model.addGlobal(RULES_EXECUTOR_GLOBAL);
+        rules.stream().map(this::toExecModelRule).forEach(model::addRule);
+        KiePackagesBuilder builder = new KiePackagesBuilder(conf);
+        builder.addModel(model);
+        return builder.build().getKiePackages();
+    }
+
+    /**
+     * The threads compiling the chunks of the rules sets built in parallel, shared by all the builds so that compiling
+     * many rules sets at the same time doesn't start more threads than {@code drools.yaml.compile.parallelism}. A chunk
+     * never waits for another one, so the builds sharing these threads can't block each other.
+     */
+    private static class ChunkCompiler {
+
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            AtomicInteger threadsCount = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_PARALLELISM, DEFAULT_PARALLELISM, 1L, TimeUnit.MINUTES,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "drools-yaml-compiler-" + threadsCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // the threads are only kept while rules sets are being compiled
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    private static Collection<InternalKnowledgePackage> getCompiled(Future<Collection<InternalKnowledgePackage>> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * The load order of the rules breaks the ties among their matches in the agenda, but each chunk numbers its rules
+     * from 0, so they are shifted after the ones of the previous chunks to fire as if the rules set was compiled whole.
+     */
+    private static int shiftLoadOrder(Collection<InternalKnowledgePackage> packages, int offset) {
+        int count = 0;
+        for (InternalKnowledgePackage pkg : packages) {
+            for (org.kie.api.definition.rule.Rule rule : pkg.getRules()) {
+                RuleImpl ruleImpl = (RuleImpl) rule;
+                ruleImpl.setLoadOrder(ruleImpl.getLoadOrder() + offset);
+                count++;
+            }
+        }
+        return offset + count;
     }
 
-    private org.drools.model.Rule toExecModelRule(Rule rule, RulesExecutor rulesExecutor) {
+    private org.drools.model.Rule toExecModelRule(Rule rule) {
         String ruleName = rule.getName();
         if (ruleName == null) {
-            ruleName = "R" + counter++;
+            ruleName = "R" + counter.getAndIncrement();
         }
 
         RuleContext ruleContext = new RuleContext(prototypeFactory);
         var pattern = condition2Pattern(ruleContext, rule.getCondition());
-        var consequence = execute(drools -> rule.getAction().execute(rulesExecutor, drools));
+        var consequence = profiler == null ?
+                on(RULES_EXECUTOR_GLOBAL).execute((drools, rulesExecutor) -> rule.getAction().execute(rulesExecutor, drools)) :
+                on(RULES_EXECUTOR_GLOBAL).execute(profiledConsequence(rule, ruleName));
 
         return rule( ruleName ).build(pattern, consequence);
     }
 
+    private Block2<Drools, RulesExecutor> profiledConsequence(Rule rule, String ruleName) {
+        return (drools, rulesExecutor) -> {
+            long start = System.nanoTime();
+            try {
+                rule.getAction().execute(rulesExecutor, drools);
+            } finally {
+                profiler.consequenceExecuted(ruleName, System.nanoTime() - start);
+            }
+        };
+    }
+
     private ViewItem condition2Pattern(RuleContext ruleContext, Condition condition) {
         switch (condition.getType()) {
             case ANY:
-                return new CombinedExprViewItem(org.drools.model.Condition.Type.OR, condition.getAny().stream().map(subC -> scopingCondition2Pattern(ruleContext, subC)).toArray(ViewItem[]::new));
+                List<Condition> any = mergeEqualities(condition.getAny());
+                if (any.size() == 1) {
+                    return scopingCondition2Pattern(ruleContext, any.get(0));
+                }
+                return new CombinedExprViewItem(org.drools.model.Condition.Type.OR, any.stream().map(subC -> scopingCondition2Pattern(ruleContext, subC)).toArray(ViewItem[]::new));
             case ALL:
                 return new CombinedExprViewItem(org.drools.model.Condition.Type.AND, condition.getAll().stream().map(subC -> condition2Pattern(ruleContext, subC)).toArray(ViewItem[]::new));
             case SINGLE:
@@ -72,6 +364,50 @@ public class SessionGenerator {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Rewrites the equalities on the same field of the same pattern among the alternatives of an any, like x == "a" and
+     * x == "b", into a single membership condition x in ["a", "b"], so they are checked by a single constraint instead
+     * of generating a sub-rule for each of them.
+     */
+    private static List<Condition> mergeEqualities(List<Condition> conditions) {
+        Map<String, List<ParsedCondition>> equalities = new HashMap<>();
+        for (Condition condition : conditions) {
+            String key = mergeableEqualityKey(condition);
+            if (key != null) {
+                equalities.computeIfAbsent(key, k -> new ArrayList<>()).add(condition.getParsedCondition());
+            }
+        }
+        if (equalities.values().stream().allMatch(sameField -> sameField.size() == 1)) {
+            return conditions;
+        }
+
+        List<Condition> merged = new ArrayList<>();
+        for (Condition condition : conditions) {
+            String key = mergeableEqualityKey(condition);
+            List<ParsedCondition> sameField = key != null ? equalities.remove(key) : null;
+            if (key == null || (sameField != null && sameField.size() == 1)) {
+                merged.add(condition);
+            } else if (sameField != null) {
+                List<Object> values = sameField.stream().map(ParsedCondition::getRight).collect(Collectors.toList());
+                merged.add(new Condition(ParsedCondition.of(sameField.get(0).getLeft(), ConstraintType.EQUAL, values), condition.getPatternBinding()));
+            }
+            // otherwise it is an equality already merged into the membership condition of its field
+        }
+        return merged;
+    }
+
+    private static String mergeableEqualityKey(Condition condition) {
+        if (condition.getType() != Condition.Type.SINGLE) {
+            return null;
+        }
+        ParsedCondition parsedCondition = condition.getParsedCondition();
+        if (parsedCondition.getOperator() != ConstraintType.EQUAL || parsedCondition.isMembership() ||
+                !UntypedConstraints.isHashable(parsedCondition.getRight())) {
+            return null;
+        }
+        return condition.getPatternBinding() + ":" + parsedCondition.getLeft();
+    }
+
     private ViewItem scopingCondition2Pattern(RuleContext ruleContext, Condition condition) {
         ruleContext.pushContext();
         ViewItem pattern = condition2Pattern(ruleContext, condition);
@@ -80,16 +416,68 @@ public class SessionGenerator {
     }
 
     private ViewItem singleCondition2Pattern(RuleContext ruleContext, Condition condition) {
-        ParsedCondition parsedCondition = parse(condition.getSingle());
+        ParsedCondition parsedCondition = condition.getParsedCondition();
         var pattern = ruleContext.getOrCreatePattern(condition.getPatternBinding(), PROTOTYPE_NAME);
-        pattern.expr(parsedCondition.getLeft(), parsedCondition.getOperator(), parsedCondition.getRight());
+        FactSchema.Slot slot = schema != null ? schema.getSlot(parsedCondition.getLeft()) : null;
+        String field = parsedCondition.getLeft();
+        ConstraintType operator = parsedCondition.getOperator();
+        Object value = parsedCondition.getRight();
+        // the textual form of a parsed condition quotes the strings and sorts the values of the sets, so it identifies the constraint
+        String exprId = "expr:" + parsedCondition;
+        if (parsedCondition.isMembership()) {
+            pattern.expr(exprId,
+                    profiled(condition, UntypedConstraints.membershipPredicate(field, (Set<?>) value, operator == ConstraintType.NOT_EQUAL)),
+                    reactOn(field));
+        } else if (slot != null) {
+            pattern.expr(exprId,
+                    profiled(condition, slot.predicate(operator, value)),
+                    slot.alphaIndex(operator, value),
+                    reactOn(field));
+        } else {
+            pattern.expr(exprId,
+                    profiled(condition, UntypedConstraints.predicate(field, operator, value)),
+                    untypedConstraints.alphaIndex(field, operator, value),
+                    reactOn(field));
+        }
         return pattern;
     }
 
+    private Predicate1<PrototypeFact> profiled(Condition condition, Predicate1<PrototypeFact> predicate) {
+        return profiler == null ? predicate : profiler.countingPredicate(condition.getSingle(), predicate);
+    }
+
     public Prototype getPrototype() {
         return getPrototype(PROTOTYPE_NAME);
     }
 
+    /**
+     * Creates an empty fact for the prototype of this rules set: an array based one when the rules set declares
+     * a schema for its sources, otherwise a map based one.
+     */
+    public Fact createFact() {
+        return schema != null ? new ArrayBasedFact(schemaFactTemplate, schema) : createMapBasedFact( getPrototype() );
+    }
+
+    /**
+     * Returns the given fact if it has the same layout of the ones created by this generator, otherwise a copy of it
+     * that has, like for a fact created by the generator of a previous version of the rules set.
+     */
+    public Fact adopt(Fact fact) {
+        boolean sameLayout = schema != null ?
+                fact instanceof ArrayBasedFact && ((ArrayBasedFact) fact).getSchema() == schema :
+                fact.getFactTemplate().equals( prototypeToFactTemplate( getPrototype() ) );
+        if (sameLayout) {
+            return fact;
+        }
+        Fact adopted = createFact();
+        fact.asMap().forEach(adopted::set);
+        return adopted;
+    }
+
+    RulesSet getRulesSet() {
+        return rulesSet;
+    }
+
     private Prototype getPrototype(String name) {
         return prototypeFactory.getPrototype(name);
     }
@@ -99,11 +487,17 @@ public class SessionGenerator {
 
         private final StackedContext<String, PrototypeDSL.PrototypePatternDef> patterns = new StackedContext<>();
 
+        private int generatedBindings = 0;
+
         private RuleContext(PrototypeFactory prototypeFactory) {
             this.prototypeFactory = prototypeFactory;
         }
 
         public PrototypeDSL.PrototypePatternDef getOrCreatePattern(String binding, String name) {
+            if (binding == null) {
+                // each condition without a binding is matched by a distinct fact
+                binding = generateBinding(generatedBindings++);
+            }
             return patterns.computeIfAbsent(binding, b -> protoPattern( variable(prototypeFactory.getPrototype(name), b)));
         }
 
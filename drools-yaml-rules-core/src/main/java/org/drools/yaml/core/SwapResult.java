@@ -0,0 +1,37 @@
+package org.drools.yaml.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of replacing the rules set of an executor, see {@link RulesExecutor#swapRulesSet}
+ */
+public class SwapResult {
+
+    private final long compileNanos;
+    private final long pauseNanos;
+    private final int migratedFacts;
+
+    SwapResult(long compileNanos, long pauseNanos, int migratedFacts) {
+        this.compileNanos = compileNanos;
+        this.pauseNanos = pauseNanos;
+        this.migratedFacts = migratedFacts;
+    }
+
+    /**
+     * Returns the time spent compiling the new rules set, while the executor kept using the previous one
+     */
+    public double getCompile_time_ms() {
+        return compileNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the time spent moving the facts to the new rules set, while the requests to the executor were waiting
+     */
+    public double getPause_ms() {
+        return pauseNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public int getMigrated_facts() {
+        return migratedFacts;
+    }
+}
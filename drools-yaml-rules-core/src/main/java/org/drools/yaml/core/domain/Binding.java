@@ -1,15 +1,15 @@
 package org.drools.yaml.core.domain;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 public class Binding {
 
     private static final String GENERATED_BINDING_PREFIX = "Fact#";
 
-    private static final AtomicInteger COUNTER = new AtomicInteger(0);
-
-    public static String generateBinding() {
-        return GENERATED_BINDING_PREFIX + COUNTER.getAndIncrement();
+    /**
+     * Returns the binding of the pattern of a condition not declaring one, given the position of the pattern among the
+     * other generated ones of the same rule, so identical rules get identical bindings regardless of when they are compiled.
+     */
+    public static String generateBinding(int position) {
+        return GENERATED_BINDING_PREFIX + position;
     }
 
     public static boolean isGeneratedBinding(String binding) {
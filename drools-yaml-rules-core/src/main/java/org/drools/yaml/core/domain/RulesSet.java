@@ -5,6 +5,7 @@ import java.util.List;
 public class RulesSet {
     private String name;
     private String hosts;
+    private String ttl;
     private List<Source> sources;
     private List<Rule> host_rules;
 
@@ -24,6 +25,14 @@ public class RulesSet {
         this.hosts = hosts;
     }
 
+    public String getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(String ttl) {
+        this.ttl = ttl;
+    }
+
     public List<Rule> getHost_rules() {
         return host_rules;
     }
@@ -45,6 +54,7 @@ public class RulesSet {
         return "RulesSet{" +
                 "name='" + name + '\'' +
                 ", hosts='" + hosts + '\'' +
+                ", ttl='" + ttl + '\'' +
                 ", sources=" + sources +
                 ", host_rules=" + host_rules +
                 '}';
@@ -5,6 +5,7 @@ public class Source {
     private String topic;
     private String url;
     private String schema;
+    private String max_age;
 
     public String getName() {
         return name;
@@ -38,6 +39,14 @@ public class Source {
         this.schema = schema;
     }
 
+    public String getMax_age() {
+        return max_age;
+    }
+
+    public void setMax_age(String max_age) {
+        this.max_age = max_age;
+    }
+
     @Override
     public String toString() {
         return "Source{" +
@@ -45,6 +54,7 @@ public class Source {
                 ", topic='" + topic + '\'' +
                 ", url='" + url + '\'' +
                 ", schema='" + schema + '\'' +
+                ", max_age='" + max_age + '\'' +
                 '}';
     }
 }
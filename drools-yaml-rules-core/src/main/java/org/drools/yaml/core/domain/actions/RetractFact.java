@@ -2,9 +2,12 @@ package org.drools.yaml.core.domain.actions;
 
 import org.drools.model.Drools;
 import org.drools.yaml.core.RulesExecutor;
+import org.jboss.logging.Logger;
 
 public class RetractFact extends FactAction {
 
+    private static final Logger LOG = Logger.getLogger(RetractFact.class);
+
     @Override
     public String toString() {
         return "RetractFact{" +
@@ -15,6 +18,7 @@ public class RetractFact extends FactAction {
 
     @Override
     public void execute(RulesExecutor rulesExecutor, Drools drools) {
-        System.out.println("Retracting " + getFact());
+        LOG.debugf("Retracting %s", getFact());
+        rulesExecutor.retractFact(getFact());
     }
 }
@@ -2,8 +2,12 @@ package org.drools.yaml.core.domain.conditions;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
-import static org.drools.yaml.core.domain.Binding.generateBinding;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.drools.yaml.core.rulesmodel.ParsedCondition;
+
+import static org.drools.yaml.core.domain.Binding.isGeneratedBinding;
 
 public class Condition {
 
@@ -13,6 +17,7 @@ public class Condition {
     private List<Condition> any;
     private String single;
     private String patternBinding;
+    private ParsedCondition parsedCondition;
 
     public Condition() { }
 
@@ -25,6 +30,14 @@ public class Condition {
         this.patternBinding = patternBinding;
     }
 
+    /**
+     * Creates a single condition from an already parsed constraint, whose textual form is only used to describe it
+     */
+    public Condition(ParsedCondition parsedCondition, String patternBinding) {
+        this(parsedCondition.toString(), patternBinding);
+        this.parsedCondition = parsedCondition;
+    }
+
     public Condition(Condition... all) {
         this(Arrays.asList(all));
     }
@@ -55,12 +68,21 @@ public class Condition {
 
     public void setSingle(String single) {
         this.single = single;
+        this.parsedCondition = null;
+    }
+
+    /**
+     * Returns the constraint of this single condition, parsing its textual form if it hasn't been created directly
+     */
+    @JsonIgnore
+    public ParsedCondition getParsedCondition() {
+        return parsedCondition != null ? parsedCondition : ParsedCondition.parse(single);
     }
 
+    /**
+     * Returns the binding declared for the pattern of this condition, or null if the condition doesn't declare one
+     */
     public String getPatternBinding() {
-        if (patternBinding == null) {
-            patternBinding = generateBinding();
-        }
         return patternBinding;
     }
 
@@ -85,6 +107,21 @@ public class Condition {
         return "Condition{'" + (patternBinding != null ? patternBinding + ": " : "") + single + "'}";
     }
 
+    /**
+     * Returns a textual form of this condition that is the same for all the identical conditions,
+     * so it doesn't include the pattern bindings generated for them.
+     */
+    public String toCanonicalString() {
+        switch (getType()) {
+            case ALL:
+                return all.stream().map(Condition::toCanonicalString).collect(Collectors.joining(", ", "all[", "]"));
+            case ANY:
+                return any.stream().map(Condition::toCanonicalString).collect(Collectors.joining(", ", "any[", "]"));
+            default:
+                return (patternBinding != null && !isGeneratedBinding(patternBinding) ? patternBinding + ": " : "") + single;
+        }
+    }
+
     public static Condition combineConditions(Type type, List<Condition> conditions) {
         if (type == Type.SINGLE) {
             if (conditions.size() == 1) {
@@ -1,22 +1,42 @@
 package org.drools.yaml.core.endpoint;
 
+import java.util.concurrent.RejectedExecutionException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.ServiceUnavailableException;
 import javax.ws.rs.core.MediaType;
 
+import org.drools.yaml.core.ExecutorOptions;
 import org.drools.yaml.core.domain.RulesSet;
 
 import static org.drools.yaml.core.RulesExecutor.createRulesExecutor;
+import static org.drools.yaml.core.RulesExecutor.createRulesExecutorAsync;
 
 @Path("/create-rules-executor")
 public class CreateRulesExecutorEndpoint {
 
+    // seconds suggested to the clients before retrying when all the compile threads are busy
+    private static final long RETRY_AFTER = 5;
+
     @POST()
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public long executeQuery(RulesSet rulesSet) {
-        return createRulesExecutor(rulesSet).getId();
+    public long executeQuery(@QueryParam("profile") boolean profile, @QueryParam("editable") boolean editable,
+                             @QueryParam("async") boolean async, RulesSet rulesSet) {
+        ExecutorOptions options = profile ? ExecutorOptions.DEFAULT.withProfiling() : ExecutorOptions.DEFAULT;
+        if (editable) {
+            options = options.withEditableRules();
+        }
+        if (!async) {
+            return createRulesExecutor(rulesSet, options).getId();
+        }
+        try {
+            return createRulesExecutorAsync(rulesSet, options).getId();
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException(RETRY_AFTER);
+        }
     }
 }
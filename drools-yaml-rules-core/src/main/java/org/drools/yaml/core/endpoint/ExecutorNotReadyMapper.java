@@ -0,0 +1,28 @@
+package org.drools.yaml.core.endpoint;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+import org.drools.yaml.core.ExecutorNotReadyException;
+
+/**
+ * Rejects right away the requests to an executor that is still compiling, instead of making them wait for it
+ */
+@Provider
+public class ExecutorNotReadyMapper implements ExceptionMapper<ExecutorNotReadyException> {
+
+    // seconds suggested to the clients before retrying, they can also poll the status of the executor
+    private static final int RETRY_AFTER = 1;
+
+    @Override
+    public Response toResponse(ExecutorNotReadyException e) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER)
+                .type(MediaType.TEXT_PLAIN)
+                .entity(e.getMessage())
+                .build();
+    }
+}
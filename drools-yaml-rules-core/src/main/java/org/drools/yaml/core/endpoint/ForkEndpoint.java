@@ -0,0 +1,19 @@
+package org.drools.yaml.core.endpoint;
+
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.drools.yaml.core.RulesExecutorContainer;
+
+@Path("/rules-executors/{id}/fork")
+public class ForkEndpoint {
+
+    @POST()
+    @Produces(MediaType.APPLICATION_JSON)
+    public long fork(@PathParam("id") long id) {
+        return RulesExecutorContainer.INSTANCE.getOrThrow(id).fork().getId();
+    }
+}
@@ -0,0 +1,23 @@
+package org.drools.yaml.core.endpoint;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+import org.drools.yaml.core.InvalidFactException;
+
+/**
+ * Rejects with a 400 the requests whose body can't be decoded into facts
+ */
+@Provider
+public class InvalidFactMapper implements ExceptionMapper<InvalidFactException> {
+
+    @Override
+    public Response toResponse(InvalidFactException e) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .type(MediaType.TEXT_PLAIN)
+                .entity(e.getMessage())
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package org.drools.yaml.core.endpoint;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.drools.yaml.core.RulesExecutorContainer;
+import org.drools.yaml.core.domain.RuleMatch;
+
+@Path("/rules-executors/{id}/process-batch")
+public class ProcessFactsBatchEndpoint {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @POST()
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    public List<List<RuleMatch>> executeQuery(@PathParam("id") long id, InputStream facts) {
+        return RulesExecutorContainer.INSTANCE.getOrThrow(id).processBatch(facts).stream()
+                .map(matches -> matches.stream().map(RuleMatch::from).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+}
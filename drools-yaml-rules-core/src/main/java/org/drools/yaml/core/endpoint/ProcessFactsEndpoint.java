@@ -1,7 +1,7 @@
 package org.drools.yaml.core.endpoint;
 
+import java.io.InputStream;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
@@ -19,8 +19,8 @@ public class ProcessFactsEndpoint {
     @POST()
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public List<RuleMatch> executeQuery(@PathParam("id") long id, Map<String, Object> factMap) {
-        return RulesExecutorContainer.INSTANCE.get(id).process(factMap).stream()
+    public List<RuleMatch> executeQuery(@PathParam("id") long id, InputStream facts) {
+        return RulesExecutorContainer.INSTANCE.getOrThrow(id).process(facts).stream()
                 .map(RuleMatch::from).collect(Collectors.toList());
     }
 }
@@ -0,0 +1,38 @@
+package org.drools.yaml.core.endpoint;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.drools.yaml.core.RulesExecutor;
+import org.drools.yaml.core.RulesExecutorContainer;
+import org.drools.yaml.core.RulesProfiler;
+
+@Path("/rules-executors/{id}/profile")
+public class ProfileEndpoint {
+
+    @GET()
+    @Produces(MediaType.APPLICATION_JSON)
+    public RulesProfiler profile(@PathParam("id") long id) {
+        return getProfiler(id);
+    }
+
+    @POST()
+    @Path("/reset")
+    public void reset(@PathParam("id") long id) {
+        getProfiler(id).reset();
+    }
+
+    private RulesProfiler getProfiler(long id) {
+        RulesExecutor rulesExecutor = RulesExecutorContainer.INSTANCE.getOrThrow(id);
+        RulesProfiler profiler = rulesExecutor.getProfiler();
+        if (profiler == null) {
+            throw new NotFoundException("Rules executor " + id + " has not been created with profiling enabled");
+        }
+        return profiler;
+    }
+}
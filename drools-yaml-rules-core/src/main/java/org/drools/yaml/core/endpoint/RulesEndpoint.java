@@ -0,0 +1,42 @@
+package org.drools.yaml.core.endpoint;
+
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.drools.yaml.core.RulesExecutorContainer;
+import org.drools.yaml.core.domain.Rule;
+
+@Path("/rules-executors/{id}/rules/{name}")
+public class RulesEndpoint {
+
+    @PUT()
+    @Consumes(MediaType.APPLICATION_JSON)
+    public void addRule(@PathParam("id") long id, @PathParam("name") String name, Rule rule) {
+        rule.setName(name);
+        try {
+            RulesExecutorContainer.INSTANCE.getOrThrow(id).addRule(rule);
+        } catch (UnsupportedOperationException e) {
+            throw new ClientErrorException(e.getMessage(), Response.Status.CONFLICT);
+        }
+    }
+
+    @DELETE()
+    public void removeRule(@PathParam("id") long id, @PathParam("name") String name) {
+        boolean removed;
+        try {
+            removed = RulesExecutorContainer.INSTANCE.getOrThrow(id).removeRule(name);
+        } catch (UnsupportedOperationException e) {
+            throw new ClientErrorException(e.getMessage(), Response.Status.CONFLICT);
+        }
+        if (!removed) {
+            throw new NotFoundException("Rule " + name + " not found in rules executor " + id);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.drools.yaml.core.endpoint;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.drools.yaml.core.ExecutorStatus;
+import org.drools.yaml.core.RulesExecutorContainer;
+
+@Path("/rules-executors/{id}/status")
+public class StatusEndpoint {
+
+    @GET()
+    @Produces(MediaType.APPLICATION_JSON)
+    public ExecutorStatus status(@PathParam("id") long id) {
+        ExecutorStatus status = RulesExecutorContainer.INSTANCE.getStatus(id);
+        if (status == null) {
+            throw new NotFoundException("Rules executor " + id + " not found");
+        }
+        return status;
+    }
+}
@@ -0,0 +1,55 @@
+package org.drools.yaml.core.endpoint;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.drools.yaml.core.RulesExecutor;
+import org.drools.yaml.core.RulesExecutorContainer;
+import org.drools.yaml.core.SwapResult;
+import org.drools.yaml.core.domain.RulesSet;
+
+@Path("/rules-executors/{id}/swap")
+public class SwapRulesSetEndpoint {
+
+    // seconds suggested to the clients before retrying when all the compile threads are busy
+    private static final long RETRY_AFTER = 5;
+
+    /**
+     * Answers once the new rules set has been compiled and the facts moved to it, without keeping the thread serving
+     * the request busy in the meanwhile
+     */
+    @POST()
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public CompletionStage<SwapResult> swap(@PathParam("id") long id, RulesSet rulesSet) {
+        RulesExecutor rulesExecutor = RulesExecutorContainer.INSTANCE.getOrThrow(id);
+        try {
+            return rulesExecutor.swapRulesSet(rulesSet).exceptionally(SwapRulesSetEndpoint::toClientError);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException(RETRY_AFTER);
+        }
+    }
+
+    private static SwapResult toClientError(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof IllegalArgumentException) {
+            // the rules set doesn't compile or the facts of the executor don't fit its schema
+            throw new BadRequestException(cause.getMessage());
+        }
+        if (cause instanceof IllegalStateException || cause instanceof UnsupportedOperationException) {
+            throw new ClientErrorException(cause.getMessage(), Response.Status.CONFLICT);
+        }
+        throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    }
+}
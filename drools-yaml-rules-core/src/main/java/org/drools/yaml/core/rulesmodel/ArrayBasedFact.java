@@ -0,0 +1,156 @@
+package org.drools.yaml.core.rulesmodel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.core.facttemplates.Fact;
+import org.drools.core.facttemplates.FactTemplate;
+import org.drools.model.PrototypeFact;
+import org.drools.yaml.core.rulesmodel.FactSchema.Slot;
+
+/**
+ * A fact storing the values of the fields declared by a {@link FactSchema} in fixed slots, keeping the
+ * numeric and boolean ones as primitives. Fields not declared by the schema are kept in a separate map.
+ */
+public class ArrayBasedFact implements Fact, PrototypeFact {
+
+    private final FactTemplate factTemplate;
+    private final FactSchema schema;
+
+    private final long[] primitives;
+    private final Object[] references;
+    private final long[] assignedSlots;
+
+    private Map<String, Object> undeclaredFields;
+
+    public ArrayBasedFact(FactTemplate factTemplate, FactSchema schema) {
+        this.factTemplate = factTemplate;
+        this.schema = schema;
+        this.primitives = new long[schema.getPrimitiveSlotsCount()];
+        this.references = new Object[schema.getReferenceSlotsCount()];
+        this.assignedSlots = new long[(schema.getSlotsCount() + 63) / 64];
+    }
+
+    @Override
+    public FactTemplate getFactTemplate() {
+        return factTemplate;
+    }
+
+    public FactSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public Object get(String name) {
+        Slot slot = schema.getSlot(name);
+        if (slot != null) {
+            return get(slot);
+        }
+        return undeclaredFields != null ? undeclaredFields.get(name) : null;
+    }
+
+    @Override
+    public void set(String name, Object value) {
+        Slot slot = schema.getSlot(name);
+        if (slot != null) {
+            set(slot, value);
+        } else {
+            if (undeclaredFields == null) {
+                undeclaredFields = new HashMap<>();
+            }
+            undeclaredFields.put(name, value);
+        }
+    }
+
+    @Override
+    public Map<String, Object> asMap() {
+        Map<String, Object> map = undeclaredFields != null ? new HashMap<>(undeclaredFields) : new HashMap<>();
+        for (Slot slot : schema.getSlots()) {
+            if (isSet(slot)) {
+                map.put(slot.getName(), get(slot));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Returns the names of the fields having a value, without copying the values as {@link #asMap()} does
+     */
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>(undeclaredFields != null ? undeclaredFields.keySet() : List.of());
+        for (Slot slot : schema.getSlots()) {
+            if (isSet(slot)) {
+                keys.add(slot.getName());
+            }
+        }
+        return keys;
+    }
+
+    boolean isSet(Slot slot) {
+        return (assignedSlots[slot.getIndex() >>> 6] & (1L << slot.getIndex())) != 0;
+    }
+
+    long getLong(Slot slot) {
+        return primitives[slot.getStorageIndex()];
+    }
+
+    double getDouble(Slot slot) {
+        return Double.longBitsToDouble(primitives[slot.getStorageIndex()]);
+    }
+
+    boolean getBoolean(Slot slot) {
+        return primitives[slot.getStorageIndex()] != 0;
+    }
+
+    Object getReference(Slot slot) {
+        return references[slot.getStorageIndex()];
+    }
+
+    Object get(Slot slot) {
+        if (!isSet(slot)) {
+            return null;
+        }
+        switch (slot.getType()) {
+            case LONG:
+                return getLong(slot);
+            case DOUBLE:
+                return getDouble(slot);
+            case BOOLEAN:
+                return getBoolean(slot);
+            default:
+                return getReference(slot);
+        }
+    }
+
+    private void set(Slot slot, Object value) {
+        Object coerced = slot.coerce(value);
+        if (coerced == null) {
+            assignedSlots[slot.getIndex() >>> 6] &= ~(1L << slot.getIndex());
+            if (!slot.getType().isPrimitive()) {
+                references[slot.getStorageIndex()] = null;
+            }
+            return;
+        }
+        switch (slot.getType()) {
+            case LONG:
+                primitives[slot.getStorageIndex()] = (Long) coerced;
+                break;
+            case DOUBLE:
+                primitives[slot.getStorageIndex()] = Double.doubleToRawLongBits((Double) coerced);
+                break;
+            case BOOLEAN:
+                primitives[slot.getStorageIndex()] = ((Boolean) coerced) ? 1 : 0;
+                break;
+            default:
+                references[slot.getStorageIndex()] = coerced;
+        }
+        assignedSlots[slot.getIndex() >>> 6] |= 1L << slot.getIndex();
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayBasedFact{" + asMap() + '}';
+    }
+}
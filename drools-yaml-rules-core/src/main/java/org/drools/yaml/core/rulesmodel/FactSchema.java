@@ -0,0 +1,326 @@
+package org.drools.yaml.core.rulesmodel;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import org.drools.core.definitions.InternalKnowledgePackage;
+import org.drools.core.facttemplates.FactTemplate;
+import org.drools.core.reteoo.CoreComponentFactory;
+import org.drools.model.AlphaIndex;
+import org.drools.model.Index.ConstraintType;
+import org.drools.model.Prototype;
+import org.drools.model.PrototypeDSL;
+import org.drools.model.PrototypeFact;
+import org.drools.model.functions.Predicate1;
+import org.drools.modelcompiler.facttemplate.FactFactory;
+import org.drools.yaml.core.InvalidFactException;
+import org.drools.yaml.core.domain.Source;
+
+import static org.drools.model.PatternDSL.alphaIndexedBy;
+
+/**
+ * The fixed set of typed fields declared by the schema of the sources of a rules set, in the form
+ * <pre>sensu.data.i: long, sensu.data.name: string</pre>
+ * Each field is assigned to a slot of the {@link ArrayBasedFact}s, so constraints on it can be evaluated
+ * reading the slot directly and comparing primitive values.
+ */
+public class FactSchema {
+
+    public enum FieldType {
+        STRING(String.class, false),
+        LONG(Long.class, true),
+        DOUBLE(Double.class, true),
+        BOOLEAN(Boolean.class, true),
+        OBJECT(Object.class, false);
+
+        private final Class<?> javaType;
+        private final boolean primitive;
+
+        FieldType(Class<?> javaType, boolean primitive) {
+            this.javaType = javaType;
+            this.primitive = primitive;
+        }
+
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+
+        boolean isPrimitive() {
+            return primitive;
+        }
+
+        static FieldType parse(String type) {
+            switch (type.toLowerCase()) {
+                case "string":
+                    return STRING;
+                case "int":
+                case "integer":
+                case "long":
+                    return LONG;
+                case "float":
+                case "double":
+                case "number":
+                    return DOUBLE;
+                case "bool":
+                case "boolean":
+                    return BOOLEAN;
+                case "object":
+                case "any":
+                    return OBJECT;
+            }
+            throw new IllegalArgumentException("Unknown schema type " + type);
+        }
+    }
+
+    private final Map<String, Slot> slots = new LinkedHashMap<>();
+
+    private int primitiveSlots = 0;
+    private int referenceSlots = 0;
+
+    private FactSchema() { }
+
+    /**
+     * Returns the schema merging the fields declared by all the given sources or null if none of them has a schema.
+     */
+    public static FactSchema of(List<Source> sources) {
+        if (sources == null) {
+            return null;
+        }
+        FactSchema schema = null;
+        for (Source source : sources) {
+            if (source.getSchema() != null && !source.getSchema().isBlank()) {
+                if (schema == null) {
+                    schema = new FactSchema();
+                }
+                schema.addFields(source.getSchema());
+            }
+        }
+        return schema;
+    }
+
+    public static FactSchema parse(String schemaDeclaration) {
+        FactSchema schema = new FactSchema();
+        schema.addFields(schemaDeclaration);
+        return schema;
+    }
+
+    private void addFields(String schemaDeclaration) {
+        for (String fieldDeclaration : schemaDeclaration.split(",")) {
+            int colonPos = fieldDeclaration.lastIndexOf(':');
+            if (colonPos < 0) {
+                throw new IllegalArgumentException("Missing type for schema field " + fieldDeclaration.trim());
+            }
+            addField(fieldDeclaration.substring(0, colonPos).trim(), FieldType.parse(fieldDeclaration.substring(colonPos+1).trim()));
+        }
+    }
+
+    private void addField(String name, FieldType type) {
+        Slot existing = slots.get(name);
+        if (existing != null) {
+            if (existing.type != type) {
+                throw new IllegalArgumentException("Field " + name + " declared both as " + existing.type + " and " + type);
+            }
+            return;
+        }
+        int storageIndex = type.primitive ? primitiveSlots++ : referenceSlots++;
+        slots.put(name, new Slot(name, type, slots.size(), storageIndex));
+    }
+
+    public Slot getSlot(String name) {
+        return slots.get(name);
+    }
+
+    Collection<Slot> getSlots() {
+        return slots.values();
+    }
+
+    int getSlotsCount() {
+        return slots.size();
+    }
+
+    int getPrimitiveSlotsCount() {
+        return primitiveSlots;
+    }
+
+    int getReferenceSlotsCount() {
+        return referenceSlots;
+    }
+
+    public Prototype toPrototype(String name) {
+        return PrototypeDSL.prototype(name, slots.values().stream()
+                .map(slot -> PrototypeDSL.field(slot.name, slot.type.javaType, slot::get))
+                .toArray(Prototype.Field[]::new));
+    }
+
+    public FactTemplate toFactTemplate(Prototype prototype) {
+        InternalKnowledgePackage pkg = CoreComponentFactory.get().createKnowledgePackage(prototype.getPackage());
+        return FactFactory.prototypeToFactTemplate(prototype, pkg);
+    }
+
+    public static class Slot {
+        private final String name;
+        private final FieldType type;
+        private final int index;
+        private final int storageIndex;
+
+        private Slot(String name, FieldType type, int index, int storageIndex) {
+            this.name = name;
+            this.type = type;
+            this.index = index;
+            this.storageIndex = storageIndex;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public FieldType getType() {
+            return type;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        int getStorageIndex() {
+            return storageIndex;
+        }
+
+        Object get(PrototypeFact fact) {
+            return ((ArrayBasedFact) fact).get(this);
+        }
+
+        private static boolean isSet(PrototypeFact fact, Slot slot) {
+            return ((ArrayBasedFact) fact).isSet(slot);
+        }
+
+        Object coerce(Object value) {
+            if (value == null) {
+                return null;
+            }
+            switch (type) {
+                case LONG:
+                    if (isIntegral(value)) {
+                        return ((Number) value).longValue();
+                    }
+                    if (value instanceof Number && ((Number) value).doubleValue() == Math.rint(((Number) value).doubleValue())) {
+                        return ((Number) value).longValue();
+                    }
+                    break;
+                case DOUBLE:
+                    if (value instanceof Number) {
+                        return ((Number) value).doubleValue();
+                    }
+                    break;
+                case STRING:
+                    if (value instanceof String) {
+                        return value;
+                    }
+                    break;
+                case BOOLEAN:
+                    if (value instanceof Boolean) {
+                        return value;
+                    }
+                    break;
+                case OBJECT:
+                    return value;
+            }
+            throw new InvalidFactException("Value " + value + " is not valid for field " + name + " of type " + type);
+        }
+
+        /**
+         * Creates the constraint comparing this field with the given value, reading the value of the field
+         * directly from its slot and, for numeric fields, comparing it as a primitive.
+         */
+        public Predicate1<PrototypeFact> predicate(ConstraintType constraintType, Object value) {
+            if (value == null) {
+                switch (constraintType) {
+                    case EQUAL:
+                        return fact -> !isSet(fact, this);
+                    case NOT_EQUAL:
+                        return fact -> isSet(fact, this);
+                    default:
+                        return fact -> false;
+                }
+            }
+
+            IntPredicate comparison = UntypedConstraints.comparison(constraintType);
+            boolean matchesMissing = constraintType == ConstraintType.NOT_EQUAL;
+            switch (type) {
+                case LONG:
+                    if (isIntegral(value)) {
+                        long longValue = ((Number) value).longValue();
+                        return fact -> isSet(fact, this) ?
+                                comparison.test( Long.compare(((ArrayBasedFact) fact).getLong(this), longValue) ) :
+                                matchesMissing;
+                    }
+                    if (value instanceof Number) {
+                        double doubleValue = ((Number) value).doubleValue();
+                        return fact -> isSet(fact, this) ?
+                                comparison.test( Double.compare(((ArrayBasedFact) fact).getLong(this), doubleValue) ) :
+                                matchesMissing;
+                    }
+                    break;
+                case DOUBLE:
+                    if (value instanceof Number) {
+                        double doubleValue = ((Number) value).doubleValue();
+                        return fact -> isSet(fact, this) ?
+                                comparison.test( Double.compare(((ArrayBasedFact) fact).getDouble(this), doubleValue) ) :
+                                matchesMissing;
+                    }
+                    break;
+                case BOOLEAN:
+                    if (value instanceof Boolean && UntypedConstraints.isEquality(constraintType)) {
+                        boolean booleanValue = (Boolean) value;
+                        return fact -> isSet(fact, this) ?
+                                comparison.test( ((ArrayBasedFact) fact).getBoolean(this) == booleanValue ? 0 : 1 ) :
+                                matchesMissing;
+                    }
+                    break;
+                case STRING:
+                    if (value instanceof String) {
+                        String stringValue = (String) value;
+                        if (UntypedConstraints.isEquality(constraintType)) {
+                            return fact -> isSet(fact, this) ?
+                                    comparison.test( stringValue.equals(((ArrayBasedFact) fact).getReference(this)) ? 0 : 1 ) :
+                                    matchesMissing;
+                        }
+                        return fact -> isSet(fact, this) ?
+                                comparison.test( ((String) ((ArrayBasedFact) fact).getReference(this)).compareTo(stringValue) ) :
+                                matchesMissing;
+                    }
+                    break;
+                case OBJECT:
+                    if (UntypedConstraints.isEquality(constraintType)) {
+                        return fact -> isSet(fact, this) ?
+                                comparison.test( value.equals(((ArrayBasedFact) fact).getReference(this)) ? 0 : 1 ) :
+                                matchesMissing;
+                    }
+                    break;
+            }
+            throw new IllegalArgumentException("Cannot compare field " + name + " of type " + type + " with " + value + " using " + constraintType);
+        }
+
+        public AlphaIndex<PrototypeFact, ?> alphaIndex(ConstraintType constraintType, Object value) {
+            if (value == null || (type == FieldType.LONG && !isIntegral(value))) {
+                return null;
+            }
+            // the slot only holds values of the java type of its field, that coerce also converts the literal to
+            @SuppressWarnings("unchecked")
+            Class<Object> indexedType = (Class<Object>) type.javaType;
+            return alphaIndexedBy(indexedType, constraintType, index, this::get, coerce(value));
+        }
+
+        private static boolean isIntegral(Object value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + type.name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.drools.yaml.core.rulesmodel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A node of a trie of the dotted paths used as keys of the facts. Each node keeps the flattened path
+ * leading to it, so populating a fact with a key already seen before doesn't allocate anything and
+ * all the facts share the same key instances.
+ */
+public class FieldPath {
+
+    static final int MAX_CACHED_PATHS = 10_000;
+
+    private final String path;
+    private final AtomicInteger cachedPaths;
+    private final Map<String, FieldPath> children = new ConcurrentHashMap<>();
+
+    private FieldPath(String path, AtomicInteger cachedPaths) {
+        this.path = path;
+        this.cachedPaths = cachedPaths;
+    }
+
+    public static FieldPath root() {
+        return new FieldPath("", new AtomicInteger());
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public FieldPath child(String key) {
+        FieldPath child = children.get(key);
+        if (child != null) {
+            return child;
+        }
+        child = new FieldPath(path.isEmpty() ? key : path + "." + key, cachedPaths);
+        if (cachedPaths.incrementAndGet() > MAX_CACHED_PATHS) {
+            // facts with unbounded key sets shouldn't make the trie grow forever
+            cachedPaths.decrementAndGet();
+            return child;
+        }
+        FieldPath existing = children.putIfAbsent(key, child);
+        if (existing != null) {
+            cachedPaths.decrementAndGet();
+            return existing;
+        }
+        return child;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
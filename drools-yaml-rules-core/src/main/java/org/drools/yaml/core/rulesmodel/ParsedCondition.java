@@ -1,21 +1,49 @@
 package org.drools.yaml.core.rulesmodel;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import org.drools.model.Index.ConstraintType;
 
+/**
+ * A single constraint comparing a field, identified by its dotted path, with a typed literal. The literal is either
+ * null, a String, a Boolean, a Long for the integral numbers or a Double for all the other ones, or, for the set
+ * membership conditions, an immutable set of them. Conditions can be parsed from their textual form, like
+ * <pre>sensu.data.i >= 3</pre>, or created directly, as done by the notations not expressing them as text.
+ */
 public class ParsedCondition {
 
-    private String left;
-    private ConstraintType operator;
-    private Object right;
+    private final String left;
+    private final ConstraintType operator;
+    private final Object right;
 
-    private ParsedCondition(String condition) {
-        int pos = findOperatorPos(condition);
-        this.left = condition.substring(0, pos).trim();
-        this.right = parseRightOperand( condition.substring(pos+2).trim() );
+    private ParsedCondition(String left, ConstraintType operator, Object right) {
+        this.left = left;
+        this.operator = operator;
+        this.right = right;
+    }
+
+    /**
+     * Creates the condition comparing the given field with a value. When the value is a collection the condition checks
+     * if the field has one of its values, for an EQUAL operator, or none of them, for a NOT_EQUAL one.
+     */
+    public static ParsedCondition of(String left, ConstraintType operator, Object right) {
+        if (right instanceof Collection) {
+            if (!UntypedConstraints.isEquality(operator)) {
+                throw new IllegalArgumentException("Cannot compare field " + left + " with a set of values using " + operator);
+            }
+            return new ParsedCondition(left, operator, toValuesSet((Collection<?>) right));
+        }
+        return new ParsedCondition(left, operator, UntypedConstraints.normalize(right));
     }
 
     public static ParsedCondition parse(String condition) {
-        return new ParsedCondition(condition);
+        return new Parser(condition).parse();
     }
 
     public String getLeft() {
@@ -30,63 +58,206 @@ public class ParsedCondition {
         return right;
     }
 
-    private int findOperatorPos(String condition) {
-        int pos = condition.indexOf("==");
-        if (pos >= 0) {
-            operator = ConstraintType.EQUAL;
-            return pos;
+    /**
+     * Returns true for a condition like <pre>x in ["a", "b"]</pre> or <pre>x not in ["a", "b"]</pre>, whose operator
+     * is respectively EQUAL or NOT_EQUAL and whose right operand is the immutable set of the normalized values.
+     */
+    public boolean isMembership() {
+        return right instanceof Set;
+    }
+
+    private static Set<Object> toValuesSet(Collection<?> values) {
+        Set<Object> set = new HashSet<>();
+        for (Object value : values) {
+            set.add(UntypedConstraints.normalize(value));
         }
+        return Collections.unmodifiableSet(set);
+    }
 
-        pos = condition.indexOf("!=");
-        if (pos >= 0) {
-            operator = ConstraintType.NOT_EQUAL;
-            return pos;
+    /**
+     * Returns the textual form of this condition, that can be parsed back into an identical one
+     */
+    @Override
+    public String toString() {
+        if (isMembership()) {
+            return left + (operator == ConstraintType.EQUAL ? " in " : " not in ") +
+                    ((Set<?>) right).stream().map(ParsedCondition::literal).sorted().collect(Collectors.joining(", ", "[", "]"));
         }
+        return left + " " + symbol(operator) + " " + literal(right);
+    }
+
+    private static String literal(Object value) {
+        return value instanceof String ? "\"" + value + "\"" : String.valueOf(value);
+    }
 
-        pos = condition.indexOf(">=");
-        if (pos >= 0) {
-            operator = ConstraintType.GREATER_OR_EQUAL;
-            return pos;
+    private static String symbol(ConstraintType operator) {
+        switch (operator) {
+            case EQUAL:
+                return "==";
+            case NOT_EQUAL:
+                return "!=";
+            case GREATER_THAN:
+                return ">";
+            case GREATER_OR_EQUAL:
+                return ">=";
+            case LESS_THAN:
+                return "<";
+            case LESS_OR_EQUAL:
+                return "<=";
         }
+        throw new UnsupportedOperationException("Unsupported operator " + operator);
+    }
+
+    /**
+     * Parses a condition scanning it only once, in the form {@code <field> <operator> <literal>}
+     * or {@code <field> [not] in [<literal>, ...]}
+     */
+    private static class Parser {
+        private final String condition;
+        private int pos = 0;
 
-        pos = condition.indexOf("<=");
-        if (pos >= 0) {
-            operator = ConstraintType.LESS_OR_EQUAL;
-            return pos;
+        private Parser(String condition) {
+            this.condition = condition;
         }
 
-        pos = condition.indexOf(">");
-        if (pos >= 0) {
-            operator = ConstraintType.GREATER_THAN;
-            return pos;
+        private ParsedCondition parse() {
+            skipSpaces();
+            int leftStart = pos;
+            while (pos < condition.length() && !Character.isWhitespace(condition.charAt(pos)) && "=!<>".indexOf(condition.charAt(pos)) < 0) {
+                pos++;
+            }
+            String left = condition.substring(leftStart, pos);
+            skipSpaces();
+            if (left.isEmpty() || pos == condition.length()) {
+                throw invalidCondition();
+            }
+
+            if (condition.startsWith("in", pos) || condition.startsWith("not", pos)) {
+                return parseMembership(left);
+            }
+
+            ConstraintType operator = parseOperator();
+            skipSpaces();
+            Object right = parseLiteral(condition.length());
+            skipSpaces();
+            if (pos < condition.length()) {
+                throw invalidCondition();
+            }
+            return new ParsedCondition(left, operator, right);
         }
 
-        pos = condition.indexOf("<");
-        if (pos >= 0) {
-            operator = ConstraintType.LESS_THAN;
-            return pos;
+        private ConstraintType parseOperator() {
+            char first = condition.charAt(pos);
+            boolean followedByEquals = pos+1 < condition.length() && condition.charAt(pos+1) == '=';
+            pos += followedByEquals ? 2 : 1;
+            switch (first) {
+                case '=':
+                    if (followedByEquals) {
+                        return ConstraintType.EQUAL;
+                    }
+                    break;
+                case '!':
+                    if (followedByEquals) {
+                        return ConstraintType.NOT_EQUAL;
+                    }
+                    break;
+                case '>':
+                    return followedByEquals ? ConstraintType.GREATER_OR_EQUAL : ConstraintType.GREATER_THAN;
+                case '<':
+                    return followedByEquals ? ConstraintType.LESS_OR_EQUAL : ConstraintType.LESS_THAN;
+            }
+            throw new UnsupportedOperationException("Unknown operator for condition: " + condition);
         }
 
-        throw new UnsupportedOperationException("Unknown operator for condition: " + condition);
-    }
+        private ParsedCondition parseMembership(String left) {
+            ConstraintType operator = ConstraintType.EQUAL;
+            if (condition.startsWith("not", pos)) {
+                operator = ConstraintType.NOT_EQUAL;
+                pos += 3;
+                skipSpaces();
+            }
+            if (!condition.startsWith("in", pos)) {
+                throw invalidCondition();
+            }
+            pos += 2;
+            skipSpaces();
+            int end = condition.stripTrailing().length() - 1;
+            if (pos >= end || condition.charAt(pos) != '[' || condition.charAt(end) != ']') {
+                throw invalidCondition();
+            }
+            pos++;
 
-    private Object parseRightOperand(String right) {
-        if (right.equals("null")) {
-            return null;
+            List<Object> values = new ArrayList<>();
+            skipSpaces();
+            while (pos < end) {
+                values.add(parseLiteral(end));
+                skipSpaces();
+                if (pos < end && condition.charAt(pos++) != ',') {
+                    throw invalidCondition();
+                }
+                skipSpaces();
+            }
+            return new ParsedCondition(left, operator, toValuesSet(values));
         }
-        if (right.equals("true")) {
-            return true;
+
+        /**
+         * Parses the literal starting at the current position and ending before the given one or at the first comma
+         */
+        private Object parseLiteral(int end) {
+            if (pos < end && condition.charAt(pos) == '"') {
+                int closingQuote = condition.indexOf('"', pos+1);
+                if (closingQuote < 0 || closingQuote >= end) {
+                    throw invalidCondition();
+                }
+                String value = condition.substring(pos+1, closingQuote);
+                pos = closingQuote+1;
+                return value;
+            }
+
+            int start = pos;
+            while (pos < end && condition.charAt(pos) != ',') {
+                pos++;
+            }
+            String token = condition.substring(start, pos).trim();
+            switch (token) {
+                case "null":
+                    return null;
+                case "true":
+                    return true;
+                case "false":
+                    return false;
+            }
+            return parseNumber(token);
         }
-        if (right.equals("false")) {
-            return false;
+
+        private Object parseNumber(String token) {
+            int digitsStart = token.startsWith("-") || token.startsWith("+") ? 1 : 0;
+            boolean integral = token.length() > digitsStart;
+            for (int i = digitsStart; i < token.length() && integral; i++) {
+                integral = Character.isDigit(token.charAt(i));
+            }
+            // up to 18 digits always fit in a long
+            if (integral && token.length() - digitsStart <= 18) {
+                return Long.parseLong(token);
+            }
+            if (!token.isEmpty() && (Character.isDigit(token.charAt(token.length()-1)) || token.charAt(token.length()-1) == '.')) {
+                try {
+                    return UntypedConstraints.normalize(Double.parseDouble(token));
+                } catch (NumberFormatException e) {
+                    // not a number, reported below
+                }
+            }
+            throw new IllegalArgumentException("Invalid literal " + token + " in condition: " + condition);
         }
-        if (right.startsWith("\"")) {
-            return right.substring(1, right.length()-1);
+
+        private void skipSpaces() {
+            while (pos < condition.length() && Character.isWhitespace(condition.charAt(pos))) {
+                pos++;
+            }
         }
-        try {
-            return Integer.parseInt(right);
-        } catch (NumberFormatException nfe) {
-            return Double.parseDouble(right);
+
+        private IllegalArgumentException invalidCondition() {
+            return new IllegalArgumentException("Invalid condition: " + condition);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,25 @@
 package org.drools.yaml.core.rulesmodel;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.drools.model.Prototype;
 import org.drools.model.PrototypeDSL;
 
 public class PrototypeFactory {
-    private final Map<String, Prototype> prototypes = new HashMap<>();
+    private final Map<String, Prototype> prototypes = new ConcurrentHashMap<>();
+
+    private final FactSchema schema;
+
+    public PrototypeFactory() {
+        this(null);
+    }
+
+    public PrototypeFactory(FactSchema schema) {
+        this.schema = schema;
+    }
 
     public Prototype getPrototype(String name) {
-        return prototypes.computeIfAbsent(name, PrototypeDSL::prototype);
+        return prototypes.computeIfAbsent(name, n -> schema != null ? schema.toPrototype(n) : PrototypeDSL.prototype(n));
     }
 }
@@ -0,0 +1,205 @@
+package org.drools.yaml.core.rulesmodel;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import org.drools.model.AlphaIndex;
+import org.drools.model.Index.ConstraintType;
+import org.drools.model.PrototypeFact;
+import org.drools.model.functions.Function1;
+import org.drools.model.functions.Predicate1;
+
+import static org.drools.model.PatternDSL.alphaIndexedBy;
+
+/**
+ * Creates the constraints on the fields not declared by the schema of a rules set. Since the values of these fields
+ * can be of any type, each predicate is specialized on the type of the literal it compares with: numbers are compared
+ * as primitive longs or doubles whatever their boxed type in the fact, and a value of a different kind simply doesn't
+ * satisfy the constraint, instead of failing with a ClassCastException.
+ * <p>
+ * The constraints are also indexed, so that Drools can hash the equalities and range index the comparisons on the
+ * same field. Drools groups the alpha nodes sharing the same index id and reads the facts through the extractor of the
+ * first of them, so each field gets a distinct id for each kind of value it is compared with, and an extractor that
+ * only returns the values of that kind. Numbers are normalized, so integral values always hash as a Long and an int
+ * in a fact matches the same value written in a condition as a long or as a double.
+ */
+public class UntypedConstraints {
+
+    private enum ValueKind {
+        STRING(String.class),
+        LONG(Long.class),
+        DOUBLE(Double.class),
+        BOOLEAN(Boolean.class),
+        // all the numbers converted to double, used to range index the comparisons
+        NUMBER(Double.class);
+
+        private final Class<?> type;
+
+        ValueKind(Class<?> type) {
+            this.type = type;
+        }
+
+        private static ValueKind of(Object normalizedValue) {
+            if (normalizedValue instanceof String) {
+                return STRING;
+            }
+            if (normalizedValue instanceof Long) {
+                return LONG;
+            }
+            if (normalizedValue instanceof Double) {
+                return DOUBLE;
+            }
+            if (normalizedValue instanceof Boolean) {
+                return BOOLEAN;
+            }
+            return null;
+        }
+
+        private Object extract(Object normalizedValue) {
+            if (this == NUMBER) {
+                return normalizedValue instanceof Number ? ((Number) normalizedValue).doubleValue() : null;
+            }
+            return type.isInstance(normalizedValue) ? normalizedValue : null;
+        }
+    }
+
+    // the rules of a rules set can be converted concurrently, so the ids are assigned atomically
+    private final Map<String, Integer> indexIds = new ConcurrentHashMap<>();
+
+    // the ids below the first one are the slots of the typed fields
+    private final AtomicInteger nextIndexId;
+
+    public UntypedConstraints(FactSchema schema) {
+        this.nextIndexId = new AtomicInteger(schema != null ? schema.getSlotsCount() : 0);
+    }
+
+    /**
+     * Returns true if an equality with the given value can be hashed, i.e. it is a string, a number or a boolean
+     */
+    public static boolean isHashable(Object value) {
+        return ValueKind.of(normalize(value)) != null;
+    }
+
+    /**
+     * Converts the numbers with an integral value to Long and all the other ones to Double
+     */
+    public static Object normalize(Object value) {
+        if (value instanceof Number && !(value instanceof Long)) {
+            double d = ((Number) value).doubleValue();
+            return d == Math.rint(d) && Math.abs(d) < 0x1p63 ? (Object) ((Number) value).longValue() : (Object) d;
+        }
+        return value;
+    }
+
+    /**
+     * Creates the predicate comparing the given field with a literal using the given operator
+     */
+    public static Predicate1<PrototypeFact> predicate(String field, ConstraintType constraintType, Object value) {
+        Object literal = normalize(value);
+        if (literal == null) {
+            switch (constraintType) {
+                case EQUAL:
+                    return fact -> fact.get(field) == null;
+                case NOT_EQUAL:
+                    return fact -> fact.get(field) != null;
+                default:
+                    return fact -> false;
+            }
+        }
+
+        IntPredicate comparison = comparison(constraintType);
+        // a value of another kind, or a missing one, is always different from the literal and never comparable with it
+        boolean matchesOtherKinds = constraintType == ConstraintType.NOT_EQUAL;
+        if (literal instanceof Long) {
+            long longLiteral = (Long) literal;
+            return fact -> {
+                Object v = fact.get(field);
+                if (isIntegral(v)) {
+                    return comparison.test( Long.compare(((Number) v).longValue(), longLiteral) );
+                }
+                return v instanceof Number ? comparison.test( Double.compare(((Number) v).doubleValue(), longLiteral) ) : matchesOtherKinds;
+            };
+        }
+        if (literal instanceof Double) {
+            double doubleLiteral = (Double) literal;
+            return fact -> {
+                Object v = fact.get(field);
+                return v instanceof Number ? comparison.test( Double.compare(((Number) v).doubleValue(), doubleLiteral) ) : matchesOtherKinds;
+            };
+        }
+        if (literal instanceof String) {
+            String stringLiteral = (String) literal;
+            if (isEquality(constraintType)) {
+                return fact -> comparison.test( stringLiteral.equals(fact.get(field)) ? 0 : 1 );
+            }
+            return fact -> {
+                Object v = fact.get(field);
+                return v instanceof String ? comparison.test( ((String) v).compareTo(stringLiteral) ) : matchesOtherKinds;
+            };
+        }
+        if (literal instanceof Boolean && isEquality(constraintType)) {
+            return fact -> comparison.test( literal.equals(fact.get(field)) ? 0 : 1 );
+        }
+        throw new IllegalArgumentException("Cannot compare field " + field + " with " + value + " using " + constraintType);
+    }
+
+    /**
+     * Creates the predicate checking if the given field has, or if negated has not, one of the given normalized values
+     */
+    public static Predicate1<PrototypeFact> membershipPredicate(String field, Set<?> values, boolean negated) {
+        return fact -> values.contains(normalize(fact.get(field))) != negated;
+    }
+
+    /**
+     * Returns the index of the constraint comparing the given field with a literal, or null if it can't be indexed
+     */
+    public AlphaIndex<PrototypeFact, Object> alphaIndex(String field, ConstraintType constraintType, Object value) {
+        Object literal = normalize(value);
+        ValueKind kind = ValueKind.of(literal);
+        if (kind == null || constraintType == ConstraintType.NOT_EQUAL || (kind == ValueKind.BOOLEAN && !isEquality(constraintType))) {
+            return null;
+        }
+        if (!isEquality(constraintType) && (kind == ValueKind.LONG || kind == ValueKind.DOUBLE)) {
+            kind = ValueKind.NUMBER;
+            literal = ((Number) literal).doubleValue();
+        }
+        int indexId = indexIds.computeIfAbsent(field + ":" + kind, k -> nextIndexId.getAndIncrement());
+        // the extractor of a kind only returns instances of its type, or null
+        @SuppressWarnings("unchecked")
+        Class<Object> indexedType = (Class<Object>) kind.type;
+        return alphaIndexedBy(indexedType, constraintType, indexId, extractor(field, kind), literal);
+    }
+
+    private static Function1<PrototypeFact, Object> extractor(String field, ValueKind kind) {
+        return fact -> kind.extract(normalize(fact.get(field)));
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    static boolean isEquality(ConstraintType constraintType) {
+        return constraintType == ConstraintType.EQUAL || constraintType == ConstraintType.NOT_EQUAL;
+    }
+
+    static IntPredicate comparison(ConstraintType constraintType) {
+        switch (constraintType) {
+            case EQUAL:
+                return c -> c == 0;
+            case NOT_EQUAL:
+                return c -> c != 0;
+            case GREATER_THAN:
+                return c -> c > 0;
+            case GREATER_OR_EQUAL:
+                return c -> c >= 0;
+            case LESS_THAN:
+                return c -> c < 0;
+            case LESS_OR_EQUAL:
+                return c -> c <= 0;
+        }
+        throw new UnsupportedOperationException("Unsupported operator " + constraintType);
+    }
+}
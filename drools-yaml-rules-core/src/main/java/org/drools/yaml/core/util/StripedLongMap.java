@@ -0,0 +1,247 @@
+package org.drools.yaml.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * A concurrent map with primitive long keys, split in independently locked stripes. Each stripe is an open
+ * addressing hash table, so neither the keys nor the entries are boxed. Lookups are optimistic and normally
+ * don't acquire any lock, while updates only lock the stripe of their key.
+ */
+public class StripedLongMap<V> {
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final Stripe<V>[] stripes;
+
+    // an array of a generic type can't be created, but it is private and only ever holds stripes of V
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public StripedLongMap() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    public V get(long key) {
+        int hash = hash(key);
+        return stripeFor(hash).get(key, hash);
+    }
+
+    /**
+     * Associates the value to the key and returns the value previously associated to it, if any.
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+        int hash = hash(key);
+        return stripeFor(hash).put(key, hash, value);
+    }
+
+    public V remove(long key) {
+        int hash = hash(key);
+        return stripeFor(hash).remove(key, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the values. Each stripe is copied under its own lock, so the snapshot never blocks
+     * the whole map, but values concurrently added to or removed from other stripes may or may not be part of it.
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (Stripe<V> stripe : stripes) {
+            stripe.copyValuesTo(values);
+        }
+        return values;
+    }
+
+    public void forEach(Consumer<V> consumer) {
+        values().forEach(consumer);
+    }
+
+    private Stripe<V> stripeFor(int hash) {
+        return stripes[hash & (STRIPES - 1)];
+    }
+
+    private static int hash(long key) {
+        // murmur3 finalizer, so sequential ids are spread both among the stripes and inside them
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static class Table<V> {
+        private final long[] keys;
+        private final Object[] values;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        // the values are only ever written by the stripe of V owning this table
+        @SuppressWarnings("unchecked")
+        private V valueAt(int i) {
+            return (V) values[i];
+        }
+
+        private int mask() {
+            return keys.length - 1;
+        }
+
+        private static int start(int hash, int mask) {
+            // the low bits already selected the stripe
+            return (hash >>> 6) & mask;
+        }
+
+        private V get(long key, int hash) {
+            int mask = mask();
+            for (int i = start(hash, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+                V value = valueAt(i);
+                if (value == null) {
+                    return null;
+                }
+                if (keys[i] == key) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Stripe<V> {
+        private final StampedLock lock = new StampedLock();
+
+        private volatile Table<V> table = new Table<>(INITIAL_STRIPE_CAPACITY);
+        private volatile int size;
+
+        V get(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                V value = table.get(key, hash);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return table.get(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        V put(long key, int hash, V value) {
+            long stamp = lock.writeLock();
+            try {
+                Table<V> t = table;
+                int mask = t.mask();
+                int i = Table.start(hash, mask);
+                while (t.values[i] != null) {
+                    if (t.keys[i] == key) {
+                        V previous = t.valueAt(i);
+                        t.values[i] = value;
+                        return previous;
+                    }
+                    i = (i + 1) & mask;
+                }
+                t.keys[i] = key;
+                t.values[i] = value;
+                size++;
+                if (size * 4 > t.keys.length * 3) {
+                    table = resize(t);
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        V remove(long key, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                Table<V> t = table;
+                int mask = t.mask();
+                int i = Table.start(hash, mask);
+                while (t.values[i] != null) {
+                    if (t.keys[i] == key) {
+                        V removed = t.valueAt(i);
+                        shiftBack(t, i);
+                        size--;
+                        return removed;
+                    }
+                    i = (i + 1) & mask;
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void copyValuesTo(List<V> target) {
+            long stamp = lock.readLock();
+            try {
+                Table<V> t = table;
+                for (int i = 0; i < t.values.length; i++) {
+                    if (t.values[i] != null) {
+                        target.add(t.valueAt(i));
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // backward shift deletion, so lookups never need tombstones
+        private static void shiftBack(Table<?> t, int hole) {
+            int mask = t.mask();
+            int i = hole;
+            while (true) {
+                i = (i + 1) & mask;
+                if (t.values[i] == null) {
+                    break;
+                }
+                int home = Table.start(hash(t.keys[i]), mask);
+                // moves the entry into the hole unless its home slot is cyclically between the hole and its position
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    t.keys[hole] = t.keys[i];
+                    t.values[hole] = t.values[i];
+                    hole = i;
+                }
+            }
+            t.keys[hole] = 0L;
+            t.values[hole] = null;
+        }
+
+        private static <V> Table<V> resize(Table<V> t) {
+            Table<V> resized = new Table<>(t.keys.length * 2);
+            int mask = resized.mask();
+            for (int j = 0; j < t.keys.length; j++) {
+                if (t.values[j] != null) {
+                    int i = Table.start(hash(t.keys[j]), mask);
+                    while (resized.values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    resized.keys[i] = t.keys[j];
+                    resized.values[i] = t.values[j];
+                }
+            }
+            return resized;
+        }
+    }
+}
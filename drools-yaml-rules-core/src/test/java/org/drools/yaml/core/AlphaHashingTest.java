@@ -0,0 +1,60 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AlphaHashingTest {
+
+    private static String rules(int count) {
+        StringBuilder rules = new StringBuilder("  host_rules:\n");
+        for (int i = 0; i < count; i++) {
+            rules.append(rule("I" + i, "i == " + i));
+            rules.append(rule("T" + i, "event.type == \"t" + i + "\""));
+        }
+        rules.append(rule("IS", "i == \"a\""));
+        rules.append(rule("ID", "i == 7.0"));
+        rules.append(rule("IB", "i == true"));
+        return rules.toString();
+    }
+
+    private static String rule(String name, String condition) {
+        return "    - name: " + name + "\n" +
+               "      condition: " + condition + "\n" +
+               "      action:\n" +
+               "        run_playbook:\n" +
+               "          - name: hello_playbook.yml\n";
+    }
+
+    @Test
+    public void testHashedEqualities() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, rules(20)), ExecutorOptions.DEFAULT.withProfiling());
+
+        assertEquals( List.of("I3", "T4"), matchedRules( rulesExecutor.process( "{ \"i\": 3, \"event\": { \"type\": \"t4\" } }" ) ) );
+        assertEquals( List.of("I7", "ID"), matchedRules( rulesExecutor.process( "{ \"i\": 7 }" ) ) );
+        assertEquals( List.of("I7", "ID"), matchedRules( rulesExecutor.process( "{ \"i\": 7.0 }" ) ) );
+        assertEquals( List.of("IS"), matchedRules( rulesExecutor.process( "{ \"i\": \"a\" }" ) ) );
+        assertEquals( List.of("IB"), matchedRules( rulesExecutor.process( "{ \"i\": true }" ) ) );
+        assertEquals( List.of(), matchedRules( rulesExecutor.process( "{ \"i\": \"3\" }" ) ) );
+
+        // the equalities on the numbers of i and on the strings of event.type are found through a hash lookup, also
+        // i == 7.0 that is normalized and shares the node of i == 7, while the single ones on the string and on the
+        // boolean values of i are evaluated against all the facts
+        RulesProfiler profiler = rulesExecutor.getProfiler();
+        for (RulesProfiler.ConstraintStats constraint : profiler.getConstraints()) {
+            boolean hashed = constraint.getExpression().startsWith("event.type") || constraint.getExpression().matches("i == [\\d.]+");
+            assertEquals( hashed ? 0 : 6, constraint.getEvaluations(), constraint.getExpression() );
+        }
+
+        rulesExecutor.dispose();
+    }
+
+    private static List<String> matchedRules(List<Match> matches) {
+        return matches.stream().map(m -> m.getRule().getName()).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,107 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.drools.yaml.core.domain.Rule;
+import org.drools.yaml.core.domain.RulesSet;
+import org.drools.yaml.core.domain.actions.RuleAction;
+import org.drools.yaml.core.domain.actions.RunPlaybook;
+import org.drools.yaml.core.domain.conditions.Condition;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EditRulesTest {
+
+    private static final String JSON_RULES =
+            "{\n" +
+            "  \"host_rules\": [\n" +
+            "    {\n" +
+            "      \"name\": \"EDITED_R1\",\n" +
+            "      \"condition\": \"i == 1\",\n" +
+            "      \"action\": {\n" +
+            "        \"run_playbook\": [\n" +
+            "          {\n" +
+            "            \"name\": \"hello_playbook.yml\"\n" +
+            "          }\n" +
+            "        ]\n" +
+            "      }\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    private static Rule rule(String name, String condition) {
+        RunPlaybook playbook = new RunPlaybook();
+        playbook.setName("hello_playbook.yml");
+        RuleAction action = new RuleAction();
+        action.setRun_playbook(List.of(playbook));
+        Rule rule = new Rule();
+        rule.setName(name);
+        rule.setCondition(new Condition(condition));
+        rule.setAction(action);
+        return rule;
+    }
+
+    @Test
+    public void testAddReplaceRemove() {
+        RulesSet rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, JSON_RULES);
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(rulesSet, ExecutorOptions.DEFAULT.withEditableRules());
+
+        assertEquals( List.of("EDITED_R1"), matchedRules( rulesExecutor.process( "{ \"i\": 1 }" ) ) );
+        assertEquals( List.of(), matchedRules( rulesExecutor.process( "{ \"i\": 2 }" ) ) );
+
+        // the fact already in the session matches the added rule, while the existing rule doesn't fire again
+        rulesExecutor.addRule(rule("EDITED_R2", "i == 2"));
+        assertEquals( 2, rulesExecutor.rulesCount() );
+        assertEquals( List.of("EDITED_R2"), matchedRules( rulesExecutor.process( "{ \"j\": 1 }" ) ) );
+
+        // an invalid rule is rejected before modifying the executor
+        assertThrows( RuntimeException.class, () -> rulesExecutor.addRule(rule("EDITED_R2", "i === 3")) );
+        assertEquals( 2, rulesExecutor.rulesCount() );
+
+        rulesExecutor.addRule(rule("EDITED_R2", "i == 3"));
+        assertEquals( 2, rulesExecutor.rulesCount() );
+        assertEquals( List.of("EDITED_R2"), matchedRules( rulesExecutor.process( "{ \"i\": 3 }" ) ) );
+
+        assertTrue( rulesExecutor.removeRule("EDITED_R1") );
+        assertFalse( rulesExecutor.removeRule("EDITED_R1") );
+        assertEquals( 1, rulesExecutor.rulesCount() );
+        assertEquals( List.of(), matchedRules( rulesExecutor.process( "{ \"i\": 1 }" ) ) );
+        assertEquals( 5, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testDetachSharedRules() {
+        RulesSet rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, JSON_RULES);
+        int cachedKieBases = KieBaseCache.INSTANCE.size();
+        RulesExecutor rulesExecutor1 = RulesExecutor.createRulesExecutor(rulesSet);
+        RulesExecutor rulesExecutor2 = RulesExecutor.createRulesExecutor(rulesSet);
+
+        assertThrows( UnsupportedOperationException.class, () -> rulesExecutor1.addRule(rule("EDITED_R2", "i == 2")) );
+
+        // once it is the only executor using them, its rules are removed from the cache and can be modified
+        rulesExecutor2.dispose();
+        rulesExecutor1.addRule(rule("EDITED_R2", "i == 2"));
+        assertEquals( cachedKieBases, KieBaseCache.INSTANCE.size() );
+        assertEquals( List.of("EDITED_R1"), matchedRules( rulesExecutor1.process( "{ \"i\": 1 }" ) ) );
+        assertEquals( List.of("EDITED_R2"), matchedRules( rulesExecutor1.process( "{ \"i\": 2 }" ) ) );
+
+        RulesExecutor rulesExecutor3 = RulesExecutor.createRulesExecutor(rulesSet);
+        assertEquals( 1, rulesExecutor3.rulesCount() );
+
+        rulesExecutor1.dispose();
+        rulesExecutor3.dispose();
+        assertEquals( cachedKieBases, KieBaseCache.INSTANCE.size() );
+    }
+
+    private static List<String> matchedRules(List<Match> matches) {
+        return matches.stream().map(m -> m.getRule().getName()).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,81 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.drools.yaml.core.domain.Rule;
+import org.drools.yaml.core.domain.actions.RuleAction;
+import org.drools.yaml.core.domain.actions.RunPlaybook;
+import org.drools.yaml.core.domain.conditions.Condition;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EvaluateTest {
+
+    private static final String JOIN_RULES =
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition:\n" +
+            "        all:\n" +
+            "          - sensu.data.i == 1\n" +
+            "          - sensu.data.j == 1\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n" +
+            "    - name: R2\n" +
+            "      condition: sensu.data.j == 1\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n";
+
+    @Test
+    public void testEvaluateDoesNotModifyTheWorkingMemory() {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(JOIN_RULES);
+
+        assertEquals( List.of(), matchedRules( rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ) ) );
+
+        // the evaluated fact is joined with the one in the working memory
+        for (int i = 0; i < 3; i++) {
+            assertEquals( List.of("R1", "R2"), matchedRules( rulesExecutor.evaluate( "{ \"sensu\": { \"data\": { \"j\":1 } } }" ) ) );
+            assertEquals( 1, rulesExecutor.factsCount() );
+        }
+
+        assertEquals( List.of("R1", "R2"), matchedRules( rulesExecutor.process( "{ \"sensu\": { \"data\": { \"j\":1 } } }" ) ) );
+        assertEquals( 2, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testEvaluateKeepsTheMatchesOfAddedRules() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, JOIN_RULES), ExecutorOptions.DEFAULT.withEditableRules());
+
+        assertEquals( List.of(), matchedRules( rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":2 } } }" ) ) );
+        rulesExecutor.addRule(rule("R3", "sensu.data.i == 2"));
+
+        // the match of the added rule on the fact already in the working memory is not reported by the evaluation
+        assertEquals( List.of(), matchedRules( rulesExecutor.evaluate( "{ \"sensu\": { \"data\": { \"k\":1 } } }" ) ) );
+        assertEquals( List.of("R3"), matchedRules( rulesExecutor.process( "{ \"sensu\": { \"data\": { \"k\":1 } } }" ) ) );
+
+        rulesExecutor.dispose();
+    }
+
+    private static Rule rule(String name, String condition) {
+        RunPlaybook playbook = new RunPlaybook();
+        playbook.setName("hello_playbook.yml");
+        RuleAction action = new RuleAction();
+        action.setRun_playbook(List.of(playbook));
+        Rule rule = new Rule();
+        rule.setName(name);
+        rule.setCondition(new Condition(condition));
+        rule.setAction(action);
+        return rule;
+    }
+
+    private static List<String> matchedRules(List<Match> matches) {
+        return matches.stream().map(m -> m.getRule().getName()).sorted().collect(Collectors.toList());
+    }
+}
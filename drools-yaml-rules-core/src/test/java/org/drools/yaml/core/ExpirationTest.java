@@ -0,0 +1,92 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExpirationTest {
+
+    private static final String YAML_WITH_TTL =
+            "  ttl: 10m\n" +
+            "  sources:\n" +
+            "    - name: sensu\n" +
+            "      max_age: 30s\n" +
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition:\n" +
+            "        all:\n" +
+            "          - sensu.data.i == 1\n" +
+            "          - j == 1\n";
+
+    // the same rules set storing the fields of the sensu facts in the slots of their schema
+    private static final String YAML_WITH_SCHEMA_AND_TTL = YAML_WITH_TTL.replace(
+            "      max_age: 30s\n",
+            "      max_age: 30s\n" +
+            "      schema: \"sensu.data.i: long\"\n");
+
+    @Test
+    public void testSourceMaxAge() {
+        for (String yaml : List.of(YAML_WITH_TTL, YAML_WITH_SCHEMA_AND_TTL)) {
+            checkSourceMaxAge(yaml);
+        }
+    }
+
+    private void checkSourceMaxAge(String yaml) {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, yaml), ExecutorOptions.DEFAULT.withPseudoClock());
+
+        assertEquals( 0, rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ).size() );
+        rulesExecutor.advanceTime( 20, TimeUnit.SECONDS );
+        assertEquals( 1, rulesExecutor.process( "{ \"j\":1 }" ).size() );
+
+        rulesExecutor.advanceTime( 20, TimeUnit.SECONDS );
+        // the sensu fact expired after 30 seconds, while the other one lives for 10 minutes
+        assertEquals( 1, rulesExecutor.factsCount() );
+        assertEquals( 0, rulesExecutor.process( "{ \"j\":1 }" ).size() );
+
+        rulesExecutor.advanceTime( 10, TimeUnit.MINUTES );
+        assertEquals( 0, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testWorkingMemoryPlateaus() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, YAML_WITH_TTL), ExecutorOptions.DEFAULT.withPseudoClock());
+
+        // 1 event per second with a max age of 30 seconds, expiring exactly when reaching it, keeps at most 29 events in memory
+        for (int i = 0; i < 300; i++) {
+            rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":" + i + " } } }" );
+            rulesExecutor.advanceTime( 1, TimeUnit.SECONDS );
+            assertEquals( Math.min(i + 1, 29), rulesExecutor.factsCount() );
+        }
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testSweepIdleExecutor() throws InterruptedException {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, YAML_WITH_TTL.replace("max_age: 30s", "max_age: 100ms")));
+
+        rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+        Thread.sleep( 200 );
+        // the fact is expired without sending any other request
+        ExpirationSweeper.INSTANCE.sweep();
+        assertEquals( 0, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testParseDuration() {
+        assertEquals( 500, FactExpirer.parseDuration("500ms") );
+        assertEquals( 30_000, FactExpirer.parseDuration("30") );
+        assertEquals( 300_000, FactExpirer.parseDuration("5m") );
+        assertEquals( 7_200_000, FactExpirer.parseDuration("2h") );
+    }
+}
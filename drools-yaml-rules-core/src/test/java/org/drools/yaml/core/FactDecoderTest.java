@@ -0,0 +1,100 @@
+package org.drools.yaml.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.core.facttemplates.Fact;
+import org.junit.jupiter.api.Test;
+
+import static org.drools.modelcompiler.facttemplate.FactFactory.createMapBasedFact;
+import static org.drools.model.PrototypeDSL.prototype;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FactDecoderTest {
+
+    private final FactDecoder decoder = new FactDecoder(() -> createMapBasedFact( prototype(SessionGenerator.PROTOTYPE_NAME) ));
+
+    @Test
+    public void testDecodeNestedFact() {
+        List<Fact> facts = decoder.decodeFacts( "{ \"sensu\": { \"data\": { \"i\":1, \"s\":\"x\" }, \"tags\": [ 1, { \"k\": true } ] }, \"n\": null }" );
+        assertEquals( 1, facts.size() );
+
+        Map<String, Object> values = facts.get(0).asMap();
+        assertEquals( 4, values.size() );
+        assertEquals( 1, values.get("sensu.data.i") );
+        assertEquals( "x", values.get("sensu.data.s") );
+        assertEquals( Arrays.asList(1, Map.of("k", true)), values.get("sensu.tags") );
+        assertNull( values.get("n") );
+    }
+
+    @Test
+    public void testDecodeFactsEnvelope() {
+        List<Fact> facts = decoder.decodeFacts( "{ facts: [ { \"sensu\": { \"data\": { \"i\":3 } } }, { \"j\":3 } ] }" );
+        assertEquals( 2, facts.size() );
+        assertEquals( 3, facts.get(0).get("sensu.data.i") );
+        assertEquals( 3, facts.get(1).get("j") );
+
+        facts = decoder.decodeFacts( "{ \"facts\": [ { \"j\":3 } ], \"i\": 1 }" );
+        assertEquals( 1, facts.size() );
+        assertEquals( 1, facts.get(0).get("i") );
+        assertEquals( List.of(Map.of("j", 3)), facts.get(0).get("facts") );
+
+        // the envelope is recognized only once the object ends, wherever its facts field is
+        facts = decoder.decodeFacts( "{ \"i\": 1, \"facts\": [ { \"j\":3 } ] }" );
+        assertEquals( 1, facts.size() );
+        assertEquals( 1, facts.get(0).get("i") );
+        assertEquals( List.of(Map.of("j", 3)), facts.get(0).get("facts") );
+
+        facts = decoder.decodeFacts( "{ \"facts\": { \"j\":3 }, \"i\": 1 }" );
+        assertEquals( 1, facts.size() );
+        assertEquals( 3, facts.get(0).get("facts.j") );
+        assertEquals( 1, facts.get(0).get("i") );
+    }
+
+    @Test
+    public void testDecodeNestedFactsEnvelope() {
+        List<Fact> facts = decoder.decodeFacts( "{ \"facts\": [ { \"facts\": [ { \"i\":1 }, { \"i\":2 } ] }, { \"i\":3 } ] }" );
+        assertEquals( 3, facts.size() );
+        for (int i = 0; i < 3; i++) {
+            assertEquals( i + 1, facts.get(i).get("i") );
+        }
+    }
+
+    @Test
+    public void testDecodeInvalidFacts() {
+        assertThrows( InvalidFactException.class, () -> decoder.decodeFacts( "{ \"i\": " ) );
+        assertThrows( InvalidFactException.class, () -> decoder.decodeFacts( "[ { \"i\": 1 } ]" ) );
+        assertThrows( InvalidFactException.class, () -> decoder.decodeFacts( "{ \"facts\": [ 1 ] }" ) );
+
+        Iterator<Fact> facts = decoder.decodeSequence( new ByteArrayInputStream("[ { \"i\": 1 }, \"x\" ]".getBytes()) );
+        assertEquals( 1, facts.next().get("i") );
+        assertThrows( InvalidFactException.class, facts::next );
+    }
+
+    @Test
+    public void testDecodeSequence() {
+        String array = "[ { \"i\": 1 }, { \"i\": 2.5 } ]";
+        String ndjson = "{ \"i\": 1 }\n{ \"i\": 2.5 }\n";
+
+        for (String json : Arrays.asList(array, ndjson)) {
+            Iterator<Fact> facts = decoder.decodeSequence( new ByteArrayInputStream(json.getBytes()) );
+            assertEquals( 1, facts.next().get("i") );
+            assertEquals( 2.5, facts.next().get("i") );
+            assertFalse( facts.hasNext() );
+        }
+    }
+
+    @Test
+    public void testFactsShareKeys() {
+        Fact first = decoder.decodeFacts( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ).get(0);
+        Fact second = decoder.decodeFacts( "{ \"sensu\": { \"data\": { \"i\":2 } } }" ).get(0);
+        assertSame( first.asMap().keySet().iterator().next(), second.asMap().keySet().iterator().next() );
+    }
+}
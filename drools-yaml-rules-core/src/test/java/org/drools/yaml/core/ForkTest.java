@@ -0,0 +1,146 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.drools.yaml.core.domain.Rule;
+import org.drools.yaml.core.domain.actions.RuleAction;
+import org.drools.yaml.core.domain.actions.RunPlaybook;
+import org.drools.yaml.core.domain.conditions.Condition;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ForkTest {
+
+    private static final String JOIN_RULES =
+            "  ttl: 1m\n" +
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition:\n" +
+            "        all:\n" +
+            "          - sensu.data.i == 1\n" +
+            "          - sensu.data.j == 1\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n" +
+            "    - name: R2\n" +
+            "      condition: sensu.data.i == 1\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n";
+
+    @Test
+    public void testForkIsIndependent() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, JOIN_RULES), ExecutorOptions.DEFAULT.withPseudoClock());
+        assertEquals( List.of("R2"), matchedRules( rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ) ) );
+
+        RulesExecutor fork = rulesExecutor.fork();
+        assertNotEquals( rulesExecutor.getId(), fork.getId() );
+        assertSame( fork, RulesExecutorContainer.INSTANCE.get(fork.getId()) );
+        assertEquals( 1, fork.factsCount() );
+
+        // the fact already evaluated doesn't fire again R2, but it is joined with the new ones
+        assertEquals( List.of("R1"), matchedRules( fork.process( "{ \"sensu\": { \"data\": { \"j\":1 } } }" ) ) );
+        assertEquals( 2, fork.factsCount() );
+        assertEquals( 1, rulesExecutor.factsCount() );
+
+        // the facts keep their expiration in the fork
+        fork.advanceTime( 2, TimeUnit.MINUTES );
+        assertEquals( 0, fork.factsCount() );
+        assertEquals( 1, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+        assertEquals( List.of("R2"), matchedRules( fork.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ) ) );
+        fork.dispose();
+
+        assertThrows( IllegalStateException.class, rulesExecutor::fork );
+    }
+
+    @Test
+    public void testForkKeepsItsOwnExpiration() {
+        // the two rules sets only differ in their ttl, so they share the same KieBase
+        RulesExecutor longLived = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, JOIN_RULES.replace("ttl: 1m", "ttl: 1h")), ExecutorOptions.DEFAULT.withPseudoClock());
+        RulesExecutor shortLived = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, JOIN_RULES.replace("ttl: 1m", "ttl: 1s")), ExecutorOptions.DEFAULT.withPseudoClock());
+
+        shortLived.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+        RulesExecutor fork = shortLived.fork();
+
+        // also the facts inserted in the fork expire after the ttl of the executor it has been forked from
+        fork.process( "{ \"sensu\": { \"data\": { \"i\":2 } } }" );
+        assertEquals( 2, fork.factsCount() );
+        fork.advanceTime( 10, TimeUnit.SECONDS );
+        assertEquals( 0, fork.factsCount() );
+
+        longLived.dispose();
+        shortLived.dispose();
+        fork.dispose();
+    }
+
+    @Test
+    public void testForkSharesTheRules() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, JOIN_RULES), ExecutorOptions.DEFAULT.withEditableRules());
+        RulesExecutor fork = rulesExecutor.fork();
+
+        // the rules can't be modified while they are shared
+        assertThrows( UnsupportedOperationException.class, () -> rulesExecutor.addRule(rule("R3", "sensu.data.i == 3")) );
+        assertEquals( 2, fork.rulesCount() );
+
+        fork.dispose();
+        rulesExecutor.addRule(rule("R3", "sensu.data.i == 3"));
+        assertEquals( 3, rulesExecutor.rulesCount() );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testForkOfProfiledExecutor() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, JOIN_RULES), ExecutorOptions.DEFAULT.withProfiling().withEditableRules());
+        rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+        rulesExecutor.addRule(rule("R3", "sensu.data.i == 3"));
+
+        RulesExecutor fork = rulesExecutor.fork();
+        assertNotSame( rulesExecutor.getProfiler(), fork.getProfiler() );
+        // the fork is compiled with the rules currently used by the executor
+        assertEquals( 3, fork.rulesCount() );
+        assertEquals( List.of("R1"), matchedRules( fork.process( "{ \"sensu\": { \"data\": { \"j\":1 } } }" ) ) );
+        assertEquals( List.of("R3"), matchedRules( fork.process( "{ \"sensu\": { \"data\": { \"i\":3 } } }" ) ) );
+
+        assertEquals( 1, matchesCreated(fork.getProfiler(), "R1") );
+        assertEquals( 0, matchesCreated(rulesExecutor.getProfiler(), "R1") );
+
+        rulesExecutor.dispose();
+        fork.dispose();
+    }
+
+    private static long matchesCreated(RulesProfiler profiler, String ruleName) {
+        return profiler.getRules().stream().filter(r -> r.getName().equals(ruleName)).mapToLong(RulesProfiler.RuleStats::getMatches_created).sum();
+    }
+
+    private static Rule rule(String name, String condition) {
+        RunPlaybook playbook = new RunPlaybook();
+        playbook.setName("hello_playbook.yml");
+        RuleAction action = new RuleAction();
+        action.setRun_playbook(List.of(playbook));
+        Rule rule = new Rule();
+        rule.setName(name);
+        rule.setCondition(new Condition(condition));
+        rule.setAction(action);
+        return rule;
+    }
+
+    private static List<String> matchedRules(List<Match> matches) {
+        return matches.stream().map(m -> m.getRule().getName()).sorted().collect(Collectors.toList());
+    }
+}
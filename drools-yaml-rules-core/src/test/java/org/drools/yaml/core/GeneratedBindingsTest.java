@@ -0,0 +1,53 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.drools.yaml.core.domain.RuleMatch;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GeneratedBindingsTest {
+
+    private static final String YAML_RULES =
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition:\n" +
+            "        all:\n" +
+            "          - sensu.data.i == 1\n" +
+            "          - j == 2\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n" +
+            "    - name: R2\n" +
+            "      condition:\n" +
+            "        all:\n" +
+            "          - sensu.data.i == 1\n" +
+            "          - j == 2\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n";
+
+    @Test
+    public void testPositionalBindings() {
+        for (int i = 0; i < 2; i++) {
+            // a rules set compiled twice gets the same bindings
+            RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                    RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, YAML_RULES), ExecutorOptions.DEFAULT.withProfiling());
+
+            List<Match> matches = rulesExecutor.process( "{ \"facts\": [ { \"sensu\": { \"data\": { \"i\":1 } } }, { \"j\":2 } ] }" );
+            assertEquals( 2, matches.size() );
+            for (Match match : matches) {
+                assertEquals( List.of("Fact#0", "Fact#1"), match.getDeclarationIds().stream().sorted().collect(Collectors.toList()) );
+
+                RuleMatch ruleMatch = RuleMatch.from( match );
+                assertEquals( Map.of("sensu", Map.of("data", Map.of("i", 1)), "j", 2), ruleMatch.getFacts() );
+            }
+
+            rulesExecutor.dispose();
+        }
+    }
+}
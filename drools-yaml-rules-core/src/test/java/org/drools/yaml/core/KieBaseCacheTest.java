@@ -0,0 +1,64 @@
+package org.drools.yaml.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class KieBaseCacheTest {
+
+    private static final String JSON_RULES =
+            "{\n" +
+            "  \"host_rules\": [\n" +
+            "    {\n" +
+            "      \"name\": \"CACHED_R1\",\n" +
+            "      \"condition\": \"sensu.data.i == 1\",\n" +
+            "      \"action\": {\n" +
+            "        \"assert_fact\": {\n" +
+            "          \"ruleset\": \"Test rules4\",\n" +
+            "          \"fact\": {\n" +
+            "            \"j\": 1\n" +
+            "          }\n" +
+            "        }\n" +
+            "      }\n" +
+            "    },\n" +
+            "    {\n" +
+            "      \"name\": \"CACHED_R2\",\n" +
+            "      \"condition\": \"j == 1\",\n" +
+            "      \"action\": {\n" +
+            "        \"run_playbook\": [\n" +
+            "          {\n" +
+            "            \"name\": \"hello_playbook.yml\"\n" +
+            "          }\n" +
+            "        ]\n" +
+            "      }\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    @Test
+    public void testShareKieBase() {
+        int cachedKieBases = KieBaseCache.INSTANCE.size();
+
+        RulesExecutor rulesExecutor1 = RulesExecutor.createFromJson(JSON_RULES);
+        RulesExecutor rulesExecutor2 = RulesExecutor.createFromJson(JSON_RULES);
+        assertEquals( cachedKieBases + 1, KieBaseCache.INSTANCE.size() );
+
+        // the fact asserted by the consequence of CACHED_R1 is inserted in the session of the executor firing it
+        assertEquals( 2, rulesExecutor1.execute( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ) );
+        assertEquals( 0, rulesExecutor2.process( "{ \"i\":2 }" ).size() );
+        assertEquals( 2, rulesExecutor2.execute( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ) );
+
+        rulesExecutor1.dispose();
+        assertEquals( cachedKieBases + 1, KieBaseCache.INSTANCE.size() );
+        rulesExecutor2.dispose();
+        assertEquals( cachedKieBases, KieBaseCache.INSTANCE.size() );
+    }
+
+    @Test
+    public void testCanonicalHash() {
+        String hash = KieBaseCache.canonicalHash( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, JSON_RULES) );
+        assertEquals( hash, KieBaseCache.canonicalHash( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, JSON_RULES) ) );
+        assertNotEquals( hash, KieBaseCache.canonicalHash( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, JSON_RULES.replace("j == 1", "j == 2")) ) );
+    }
+}
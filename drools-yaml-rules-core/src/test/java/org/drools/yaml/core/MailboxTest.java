@@ -0,0 +1,121 @@
+package org.drools.yaml.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.drools.core.facttemplates.Fact;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class MailboxTest {
+
+    private static final String YAML_RULES =
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition: sensu.data.i > 0\n";
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS = 500;
+
+    @Test
+    public void testConcurrentProcessOnSameExecutor() throws Exception {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_RULES);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= REQUESTS; i++) {
+                        int value = thread * REQUESTS + i;
+                        List<Match> matches = rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":" + value + " } } }" );
+                        // each caller only gets the match of its own fact, even when coalesced with the ones of other callers
+                        assertEquals( 1, matches.size() );
+                        assertEquals( value, ((Fact) matches.get(0).getObjects().get(0)).get("sensu.data.i") );
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            rulesExecutor.dispose();
+        }
+    }
+
+    @Test
+    public void testErrorDoesNotBlockTheOtherRequests() {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_RULES);
+        Map<String, Object> brokenFact = Map.of("sensu", Map.of("data", Map.of("i", new BrokenNumber())));
+
+        assertThrows( AssertionError.class, () -> rulesExecutor.process(brokenFact) );
+        assertEquals( 1, rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ).size() );
+
+        // the requests coalesced with a failing one fail with it, but none of their callers waits forever
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            assertTimeoutPreemptively( Duration.ofSeconds(30), () -> {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 1; i <= REQUESTS; i++) {
+                            try {
+                                if (i % 10 == 0) {
+                                    rulesExecutor.process(brokenFact);
+                                } else {
+                                    assertEquals( 1, rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":" + i + " } } }" ).size() );
+                                }
+                            } catch (AssertionError e) {
+                                if (!"broken".equals(e.getMessage())) {
+                                    throw e;
+                                }
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+            rulesExecutor.dispose();
+        }
+    }
+
+    private static class BrokenNumber extends Number {
+
+        @Override
+        public int intValue() {
+            throw new AssertionError("broken");
+        }
+
+        @Override
+        public long longValue() {
+            throw new AssertionError("broken");
+        }
+
+        @Override
+        public float floatValue() {
+            throw new AssertionError("broken");
+        }
+
+        @Override
+        public double doubleValue() {
+            throw new AssertionError("broken");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MembershipTest {
+
+    private static final String YAML_RULES =
+            "  host_rules:\n" +
+            "    - name: IN\n" +
+            "      condition: event.type in [\"a\", \"b\", 3]\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n" +
+            "    - name: NOT_IN\n" +
+            "      condition: event.type not in [\"a\", \"b\", 3]\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n" +
+            "    - name: ANY\n" +
+            "      condition:\n" +
+            "        any:\n" +
+            "          - event.type == \"a\"\n" +
+            "          - i > 10\n" +
+            "          - event.type == \"c\"\n" +
+            "          - event.type == \"d\"\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n";
+
+    @Test
+    public void testMembership() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, YAML_RULES), ExecutorOptions.DEFAULT.withProfiling());
+
+        assertEquals( List.of("ANY", "IN"), matchedRules( rulesExecutor.process( "{ \"event\": { \"type\": \"a\" } }" ) ) );
+        assertEquals( List.of("IN"), matchedRules( rulesExecutor.process( "{ \"event\": { \"type\": 3.0 } }" ) ) );
+        assertEquals( List.of("ANY", "NOT_IN"), matchedRules( rulesExecutor.process( "{ \"event\": { \"type\": \"d\" } }" ) ) );
+        assertEquals( List.of("ANY", "NOT_IN"), matchedRules( rulesExecutor.process( "{ \"i\": 11 }" ) ) );
+
+        // the equalities of the any have been merged into a single constraint
+        List<String> constraints = rulesExecutor.getProfiler().getConstraints().stream()
+                .map(RulesProfiler.ConstraintStats::getExpression).sorted().collect(Collectors.toList());
+        assertEquals( List.of("event.type in [\"a\", \"b\", 3]", "event.type in [\"a\", \"c\", \"d\"]",
+                "event.type not in [\"a\", \"b\", 3]", "i > 10"), constraints );
+
+        rulesExecutor.dispose();
+    }
+
+    private static List<String> matchedRules(List<Match> matches) {
+        return matches.stream().map(m -> m.getRule().getName()).sorted().collect(Collectors.toList());
+    }
+}
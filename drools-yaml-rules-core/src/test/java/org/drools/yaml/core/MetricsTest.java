@@ -0,0 +1,88 @@
+package org.drools.yaml.core;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MetricsTest {
+
+    private static final String YAML_RULES =
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition: sensu.data.i == 1\n" +
+            "    - name: R2\n" +
+            "      condition: sensu.data.i > 0\n";
+
+    @Test
+    public void testExecutorMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_RULES);
+            String executor = String.valueOf(rulesExecutor.getId());
+
+            rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+            rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":2 } } }" );
+
+            assertEquals( 2.0, registry.get("drools.executor.facts.inserted").tag("executor", executor).functionCounter().count() );
+            // the rules only match single facts, so they are not kept in the working memory after having been evaluated
+            assertEquals( 0.0, registry.get("drools.executor.facts").tag("executor", executor).gauge().value() );
+            assertEquals( 3.0, registry.get("drools.executor.activations").tag("executor", executor).functionCounter().count() );
+            // the activations are not counted per rule unless enabled
+            assertNull( registry.find("drools.executor.rule.activations").tag("executor", executor).functionCounter() );
+            assertEquals( 2, registry.get("drools.executor.fire").tag("executor", executor).timer().count() );
+
+            rulesExecutor.dispose();
+            assertNull( registry.find("drools.executor.facts.inserted").tag("executor", executor).functionCounter() );
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    public void testPerRuleMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                    RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, YAML_RULES), ExecutorOptions.DEFAULT.withEditableRules().withPerRuleMetrics(true));
+            String executor = String.valueOf(rulesExecutor.getId());
+
+            rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+            rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":2 } } }" );
+            assertEquals( 1.0, registry.get("drools.executor.rule.activations").tags("executor", executor, "rule", "R1").functionCounter().count() );
+            assertEquals( 2.0, registry.get("drools.executor.rule.activations").tags("executor", executor, "rule", "R2").functionCounter().count() );
+
+            // the meter of a rule goes away with the rule
+            rulesExecutor.removeRule("R1");
+            assertNull( registry.find("drools.executor.rule.activations").tags("executor", executor, "rule", "R1").functionCounter() );
+
+            // and so when the executor is swapped to a rules set without that rule
+            rulesExecutor.swapRulesSet(RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, YAML_RULES.replace("R2", "R3"))).join();
+            assertNull( registry.find("drools.executor.rule.activations").tags("executor", executor, "rule", "R2").functionCounter() );
+
+            rulesExecutor.dispose();
+            assertNull( registry.find("drools.executor.rule.activations").tag("executor", executor).functionCounter() );
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    public void testKillSwitch() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                    RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, YAML_RULES), ExecutorOptions.DEFAULT.withMetrics(false));
+            rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+            assertNull( registry.find("drools.executor.facts.inserted").tag("executor", String.valueOf(rulesExecutor.getId())).functionCounter() );
+            rulesExecutor.dispose();
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+}
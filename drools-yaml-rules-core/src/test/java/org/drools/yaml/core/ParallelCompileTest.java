@@ -0,0 +1,52 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.drools.yaml.core.domain.RulesSet;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParallelCompileTest {
+
+    private static String rules(int count) {
+        StringBuilder rules = new StringBuilder("  host_rules:\n");
+        for (int i = 0; i < count; i++) {
+            rules.append("    - name: R").append(i).append("\n");
+            if (i % 10 == 0) {
+                rules.append("      condition:\n");
+                rules.append("        any:\n");
+                rules.append("          - i == ").append(i).append("\n");
+                rules.append("          - j >= ").append(i).append("\n");
+            } else {
+                rules.append("      condition: i >= ").append(i).append("\n");
+            }
+            rules.append("      action:\n");
+            rules.append("        run_playbook:\n");
+            rules.append("          - name: hello_playbook.yml\n");
+        }
+        return rules.toString();
+    }
+
+    @Test
+    public void testSameMatchesInSameOrder() {
+        RulesSet rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, rules(1000));
+        List<String> sequential = firedRules(rulesSet, 1);
+        List<String> parallel = firedRules(rulesSet, 4);
+
+        assertEquals( 450 + 32, sequential.size() );
+        assertEquals( sequential, parallel );
+    }
+
+    private static List<String> firedRules(RulesSet rulesSet, int parallelism) {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(rulesSet, ExecutorOptions.DEFAULT.withProfiling().withCompileParallelism(parallelism));
+        try {
+            List<Match> matches = rulesExecutor.process( "{ \"i\": 500, \"j\": 300 }" );
+            return matches.stream().map(m -> m.getRule().getName()).collect(Collectors.toList());
+        } finally {
+            rulesExecutor.dispose();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.Set;
+
+import org.drools.model.Index.ConstraintType;
+import org.drools.yaml.core.rulesmodel.ParsedCondition;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ParsedConditionTest {
+
+    @Test
+    public void testParseTypedLiterals() {
+        assertCondition( "sensu.data.i", ConstraintType.GREATER_OR_EQUAL, 3L, ParsedCondition.parse("sensu.data.i >= 3") );
+        assertCondition( "i", ConstraintType.LESS_THAN, 10L, ParsedCondition.parse("i<10") );
+        assertCondition( "i", ConstraintType.EQUAL, 7L, ParsedCondition.parse("i == 7.0") );
+        assertCondition( "d", ConstraintType.NOT_EQUAL, -2.5, ParsedCondition.parse("d != -2.5") );
+        assertCondition( "s", ConstraintType.EQUAL, "a == b", ParsedCondition.parse("s == \"a == b\"") );
+        assertCondition( "b", ConstraintType.EQUAL, true, ParsedCondition.parse("b == true") );
+        assertCondition( "n", ConstraintType.EQUAL, null, ParsedCondition.parse("n == null") );
+        assertCondition( "s", ConstraintType.NOT_EQUAL, Set.of("a, b", 1L), ParsedCondition.parse("s not in [ \"a, b\", 1 ]") );
+
+        assertThrows( IllegalArgumentException.class, () -> ParsedCondition.parse("i == abc") );
+        assertThrows( IllegalArgumentException.class, () -> ParsedCondition.parse("i == 1 2") );
+    }
+
+    @Test
+    public void testTextualForm() {
+        ParsedCondition condition = ParsedCondition.of("x", ConstraintType.EQUAL, List.of("b", 2, "a"));
+        assertEquals( "x in [\"a\", \"b\", 2]", condition.toString() );
+        assertCondition( "x", ConstraintType.EQUAL, Set.of("a", "b", 2L), ParsedCondition.parse(condition.toString()) );
+        assertEquals( "x > 1.5", ParsedCondition.of("x", ConstraintType.GREATER_THAN, 1.5f).toString() );
+    }
+
+    @Test
+    public void testCompareAcrossTypes() {
+        String rules =
+                "  host_rules:\n" +
+                "    - name: R1\n" +
+                "      condition: i > 3\n" +
+                "      action:\n" +
+                "        run_playbook:\n" +
+                "          - name: hello_playbook.yml\n";
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor( RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, rules) );
+
+        assertEquals( 1, rulesExecutor.process( "{ \"i\": 3.5 }" ).size() );
+        assertEquals( 1, rulesExecutor.process( "{ \"i\": 30000000000 }" ).size() );
+        assertEquals( 0, rulesExecutor.process( "{ \"i\": 3 }" ).size() );
+        // a string is never greater than a number, instead of failing the evaluation
+        List<Match> matches = rulesExecutor.process( "{ \"i\": \"4\" }" );
+        assertEquals( 0, matches.size() );
+
+        rulesExecutor.dispose();
+    }
+
+    private static void assertCondition(String left, ConstraintType operator, Object right, ParsedCondition condition) {
+        assertEquals( left, condition.getLeft() );
+        assertEquals( operator, condition.getOperator() );
+        assertEquals( right, condition.getRight() );
+    }
+}
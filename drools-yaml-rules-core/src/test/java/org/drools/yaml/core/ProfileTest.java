@@ -0,0 +1,67 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProfileTest {
+
+    private static final String YAML_RULES =
+            "  sources:\n" +
+            "    - name: sensu\n" +
+            "      schema: \"sensu.data.i: long\"\n" +
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition: sensu.data.i == 1\n" +
+            "      action:\n" +
+            "        assert_fact:\n" +
+            "          ruleset: Test rules4\n" +
+            "          fact:\n" +
+            "            j: 1\n" +
+            "    - name: R2\n" +
+            "      condition: j == 1\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n";
+
+    @Test
+    public void testProfile() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, YAML_RULES), ExecutorOptions.DEFAULT.withProfiling());
+
+        assertEquals( 2, rulesExecutor.execute( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ) );
+        assertEquals( 0, rulesExecutor.execute( "{ \"sensu\": { \"data\": { \"i\":2 } } }" ) );
+
+        RulesProfiler profiler = rulesExecutor.getProfiler();
+        List<RulesProfiler.RuleStats> rules = profiler.getRules();
+        assertEquals( 2, rules.size() );
+        for (RulesProfiler.RuleStats rule : rules) {
+            assertEquals( 1, rule.getMatches_created() );
+            assertEquals( 1, rule.getFired() );
+            assertTrue( rule.getConsequence_time_ms() > 0 );
+        }
+
+        // 3 facts are evaluated against both the typed constraint and the untyped one
+        for (RulesProfiler.ConstraintStats constraint : profiler.getConstraints()) {
+            assertEquals( 3, constraint.getEvaluations() );
+            assertEquals( 1, constraint.getMatches() );
+        }
+        assertEquals( 2, profiler.getConstraints().size() );
+
+        profiler.reset();
+        assertEquals( 0, profiler.getConstraints().get(0).getEvaluations() );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testNoProfilingByDefault() {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_RULES);
+        assertNull( rulesExecutor.getProfiler() );
+        rulesExecutor.dispose();
+    }
+}
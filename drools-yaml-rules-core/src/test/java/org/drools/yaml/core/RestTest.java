@@ -15,11 +15,15 @@
  */
 package org.drools.yaml.core;
 
+import java.util.List;
+
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
@@ -132,6 +136,27 @@ public class RestTest {
 //                .log().body();
     }
 
+    @Test
+    public void testEvaluate() {
+        long id = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor").as(long.class);
+
+        // the evaluated fact is not kept, so it matches again at each evaluation
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .body( "{ \"sensu\": { \"data\": { \"i\":2 } } }" )
+                    .contentType(ContentType.JSON)
+                    .when()
+                    .post("/rules-executors/" + id + "/evaluate")
+                    .then()
+                    .statusCode(200)
+                    .body("ruleName", hasItem("R2"));
+        }
+    }
+
     @Test
     public void testExecute() {
         // return the id of the newly generated RulesExecutor
@@ -217,4 +242,307 @@ public class RestTest {
                 .body("ruleName", hasItem("R3"),
                         "facts.j", hasItem(3));
     }
+
+    @Test
+    public void testProcessBatch() {
+        long id = given()
+                .body(JSON_RULES_2)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor").as(long.class);
+
+        // the match of R3 is reported for the second fact, the one completing it
+        given()
+                .body( "[ { \"sensu\": { \"data\": { \"i\":4 } } }, { \"j\":3 }, { \"sensu\": { \"data\": { \"i\":1 } } } ]" )
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + id + "/process-batch")
+                .then()
+                .statusCode(200)
+                .body("size()", is(3),
+                      "[0].size()", is(0),
+                      "[1].ruleName", hasItem("R3"),
+                      "[2].ruleName", hasItem("R1"));
+    }
+
+    @Test
+    public void testInvalidFacts() {
+        long id = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor").as(long.class);
+
+        for (String request : List.of("process", "execute", "process-batch", "execute-batch")) {
+            // malformed json
+            given()
+                    .body( "{ \"sensu\": " )
+                    .contentType(ContentType.JSON)
+                    .when()
+                    .post("/rules-executors/" + id + "/" + request)
+                    .then()
+                    .statusCode(400);
+
+            // a fact that isn't a json object
+            given()
+                    .body( request.endsWith("batch") ? "[ 1 ]" : "\"x\"" )
+                    .contentType(ContentType.JSON)
+                    .when()
+                    .post("/rules-executors/" + id + "/" + request)
+                    .then()
+                    .statusCode(400);
+        }
+    }
+
+    @Test
+    public void testExecuteBatchWithNdjson() {
+        long id = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor").as(long.class);
+
+        given()
+                .body( "{ \"sensu\": { \"data\": { \"i\":1 } } }\n{ \"sensu\": { \"data\": { \"i\":2 } } }\n".getBytes() )
+                .contentType("application/x-ndjson")
+                .when()
+                .post("/rules-executors/" + id + "/execute-batch")
+                .then()
+                .statusCode(200)
+                .body(is("[2,1]")); // R1 and R4 (triggered by the fact asserted by R1), then R2
+    }
+
+    @Test
+    public void testAsyncCreation() {
+        long id = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor?async=true").as(long.class);
+
+        assertEquals( "READY", awaitCompiled(id) );
+
+        given()
+                .body( "{ \"sensu\": { \"data\": { \"i\":2 } } }" )
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + id + "/process")
+                .then()
+                .statusCode(200)
+                .body("ruleName", hasItem("R2"));
+
+        long failedId = given()
+                .body(JSON_RULES_1.replace("j == 1", "j === 1"))
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor?async=true").as(long.class);
+
+        assertEquals( "FAILED", awaitCompiled(failedId) );
+        given()
+                .when()
+                .get("/rules-executors/" + failedId + "/status")
+                .then()
+                .body("error", is("Invalid literal = 1 in condition: j === 1"));
+
+        // the failed creations are eventually forgotten
+        assertTrue( RulesExecutorContainer.INSTANCE.evictFailed(System.nanoTime()) >= 1 );
+        given()
+                .when()
+                .get("/rules-executors/" + failedId + "/status")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    public void testEditRules() {
+        long id = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor?editable=true").as(long.class);
+
+        given()
+                .body( "{ \"condition\": \"sensu.data.i == 5\", \"action\": { \"run_playbook\": [ { \"name\": \"hello_playbook.yml\" } ] } }" )
+                .contentType(ContentType.JSON)
+                .when()
+                .put("/rules-executors/" + id + "/rules/R5")
+                .then()
+                .statusCode(204);
+
+        given()
+                .body( "{ \"sensu\": { \"data\": { \"i\":5 } } }" )
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + id + "/process")
+                .then()
+                .statusCode(200)
+                .body("ruleName", hasItem("R5"));
+
+        given().when().delete("/rules-executors/" + id + "/rules/R5").then().statusCode(204);
+        given().when().delete("/rules-executors/" + id + "/rules/R5").then().statusCode(404);
+
+        // the rules of an executor not created as editable are shared with the other executors of the same rules set
+        long sharedId = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor").as(long.class);
+        long otherId = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor").as(long.class);
+
+        given().when().delete("/rules-executors/" + sharedId + "/rules/R1").then().statusCode(409);
+        given().when().delete("/rules-executors/" + otherId + "/rules/R1").then().statusCode(409);
+    }
+
+    @Test
+    public void testSwapRulesSet() {
+        long id = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor").as(long.class);
+
+        given()
+                .body( "{ \"sensu\": { \"data\": { \"i\":5 } } }" )
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + id + "/process")
+                .then()
+                .statusCode(200)
+                .body("size()", is(0));
+
+        given()
+                .body(JSON_RULES_1.replace("sensu.data.i == 2", "sensu.data.i == 5"))
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + id + "/swap")
+                .then()
+                .statusCode(200)
+                .body("migrated_facts", is(1));
+
+        // a rules set that doesn't compile is rejected, and the executor keeps the current one
+        given()
+                .body(JSON_RULES_1.replace("sensu.data.i == 1", "sensu.data.i === 1"))
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + id + "/swap")
+                .then()
+                .statusCode(400);
+
+        // the changed rule fires on the fact inserted before the swap
+        given()
+                .body( "{ \"sensu\": { \"data\": { \"i\":6 } } }" )
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + id + "/process")
+                .then()
+                .statusCode(200)
+                .body("ruleName", hasItem("R2"));
+    }
+
+    @Test
+    public void testFork() {
+        long id = given()
+                .body(JSON_RULES_1)
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/create-rules-executor").as(long.class);
+
+        given()
+                .body( "{ \"sensu\": { \"data\": { \"i\":5 } } }" )
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + id + "/process")
+                .then()
+                .statusCode(200);
+
+        long forkId = given()
+                .when()
+                .post("/rules-executors/" + id + "/fork").as(long.class);
+
+        given()
+                .body( "{ \"sensu\": { \"data\": { \"i\":6 } } }" )
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/rules-executors/" + forkId + "/process")
+                .then()
+                .statusCode(200);
+
+        given()
+                .when()
+                .get("/rules-executors/" + forkId + "/facts-count")
+                .then()
+                .statusCode(200)
+                .body(is("2"));
+
+        given()
+                .when()
+                .get("/rules-executors/" + id + "/facts-count")
+                .then()
+                .statusCode(200)
+                .body(is("1"));
+    }
+
+    @Test
+    public void testRejectWhileCompiling() {
+        ExecutorStatus compiling = new ExecutorStatus(-1);
+        RulesExecutorContainer.INSTANCE.registerPending(compiling);
+        try {
+            given()
+                    .body( "{ \"j\":1 }" )
+                    .contentType(ContentType.JSON)
+                    .when()
+                    .post("/rules-executors/-1/process")
+                    .then()
+                    .statusCode(503)
+                    .header("Retry-After", "1");
+
+            given()
+                    .when()
+                    .get("/rules-executors/-1/status")
+                    .then()
+                    .statusCode(200)
+                    .body("status", is("COMPILING"));
+        } finally {
+            RulesExecutorContainer.INSTANCE.removePending(-1);
+        }
+
+        given()
+                .when()
+                .get("/rules-executors/-1/status")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    public void testUnknownExecutor() {
+        for (String request : List.of("process", "execute", "process-batch", "execute-batch", "retract", "evaluate")) {
+            given()
+                    .body( "{ \"j\":1 }" )
+                    .contentType(ContentType.JSON)
+                    .when()
+                    .post("/rules-executors/-1/" + request)
+                    .then()
+                    .statusCode(404);
+        }
+        given().when().get("/rules-executors/-1/facts-count").then().statusCode(404);
+        given().when().get("/rules-executors/-1/profile").then().statusCode(404);
+    }
+
+    private static String awaitCompiled(long id) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String status;
+        do {
+            status = given()
+                    .when()
+                    .get("/rules-executors/" + id + "/status")
+                    .then()
+                    .statusCode(200)
+                    .extract().path("status");
+        } while (status.equals("COMPILING") && System.currentTimeMillis() < deadline);
+        return status;
+    }
 }
@@ -0,0 +1,84 @@
+package org.drools.yaml.core;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class RetractTest {
+
+    private static final String YAML_RULES =
+            "  sources:\n" +
+            "    - name: sensu\n" +
+            "      schema: \"sensu.data.i: long\"\n" +
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition: sensu.data.i == 3\n" +
+            "      action:\n" +
+            "        retract_fact:\n" +
+            "          ruleset: Test rules4\n" +
+            "          fact:\n" +
+            "            j: 3\n" +
+            "    - name: R2\n" +
+            "      condition: j == 3\n";
+
+    @Test
+    public void testRetractFromAction() {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_RULES);
+
+        assertEquals( 1, rulesExecutor.process( "{ \"j\":3 }" ).size() );
+        assertEquals( 1, rulesExecutor.factsCount() );
+
+        rulesExecutor.execute( "{ \"sensu\": { \"data\": { \"i\":3 } } }" );
+        // the fact j:3 has been retracted by R1, so only the sensu one is left
+        assertEquals( 1, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testRetractByContent() {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_RULES);
+
+        rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1, \"s\": \"x\" } } }" );
+        rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1, \"s\": \"x\" } } }" );
+        rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":2 } } }" );
+        assertEquals( 3, rulesExecutor.factsCount() );
+
+        assertEquals( 0, rulesExecutor.retract( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ) );
+        // the int in the request matches the long stored in the typed fact, and only one of the 2 identical facts is retracted
+        assertEquals( 1, rulesExecutor.retract( "{ \"sensu\": { \"data\": { \"s\": \"x\", \"i\":1 } } }" ) );
+        assertEquals( 2, rulesExecutor.factsCount() );
+        assertEquals( 2, rulesExecutor.retract( "{ \"facts\": [ { \"sensu\": { \"data\": { \"i\":1, \"s\": \"x\" } } }, { \"sensu\": { \"data\": { \"i\":2 } } } ] }" ) );
+        assertEquals( 0, rulesExecutor.factsCount() );
+        assertFalse( rulesExecutor.retractFact( Map.of("j", 3) ) );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testRetractOldestIdenticalFact() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, "  ttl: 1m\n" + YAML_RULES), ExecutorOptions.DEFAULT.withPseudoClock());
+
+        for (int i = 0; i < 20; i++) {
+            rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":5 } } }" );
+            rulesExecutor.advanceTime( 1, TimeUnit.SECONDS );
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals( 1, rulesExecutor.retract( "{ \"sensu\": { \"data\": { \"i\":5 } } }" ) );
+        }
+        assertEquals( 10, rulesExecutor.factsCount() );
+
+        // the 10 retracted facts are the oldest ones, so none of the remaining ones is expired yet
+        rulesExecutor.advanceTime( 49, TimeUnit.SECONDS );
+        assertEquals( 10, rulesExecutor.factsCount() );
+        rulesExecutor.advanceTime( 10, TimeUnit.SECONDS );
+        assertEquals( 0, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+    }
+}
@@ -0,0 +1,37 @@
+package org.drools.yaml.core;
+
+import org.drools.yaml.core.domain.RulesSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RulebooksTest {
+
+    @Test
+    public void testPinnedRulebook() {
+        RulesSet rulebook = RulesSetPreloader.readRulebook("rulebooks/pinned.yml");
+        assertEquals( "Pinned rulebook", rulebook.getName() );
+
+        int cachedKieBases = KieBaseCache.INSTANCE.size();
+        KieBaseCache.CachedKieBase pinned = KieBaseCache.INSTANCE.pin(rulebook);
+        assertEquals( cachedKieBases + 1, KieBaseCache.INSTANCE.size() );
+
+        // the executors of the rulebook use the pinned KieBase, that is kept after all of them are disposed
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(RulesSetPreloader.readRulebook("rulebooks/pinned.yml"));
+        assertEquals( 1, rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ).size() );
+        rulesExecutor.dispose();
+        assertEquals( cachedKieBases + 1, KieBaseCache.INSTANCE.size() );
+        assertSame( pinned, KieBaseCache.INSTANCE.acquire(rulebook) );
+
+        KieBaseCache.INSTANCE.release(pinned);
+        KieBaseCache.INSTANCE.release(pinned);
+        assertEquals( cachedKieBases, KieBaseCache.INSTANCE.size() );
+    }
+
+    @Test
+    public void testMissingRulebook() {
+        assertThrows( IllegalArgumentException.class, () -> RulesSetPreloader.readRulebook("rulebooks/missing.yml") );
+    }
+}
@@ -0,0 +1,96 @@
+package org.drools.yaml.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.drools.yaml.core.util.StripedLongMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RulesExecutorContainerTest {
+
+    private static final String YAML_RULES =
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition: sensu.data.i == 1\n" +
+            "    - name: R2\n" +
+            "      condition: sensu.data.i > 1\n";
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    public void testStripedLongMap() {
+        StripedLongMap<String> map = new StripedLongMap<>();
+        for (long i = 0; i < 10_000; i++) {
+            map.put(i, "v" + i);
+        }
+        assertEquals( 10_000, map.size() );
+        for (long i = 0; i < 10_000; i += 2) {
+            assertEquals( "v" + i, map.remove(i) );
+        }
+        assertEquals( 5_000, map.size() );
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals( i % 2 == 0 ? null : "v" + i, map.get(i) );
+        }
+        assertEquals( 5_000, map.values().size() );
+        assertNull( map.remove(0L) );
+    }
+
+    @Test
+    public void testConcurrentCreateExecuteDispose() throws Exception {
+        int initialSize = RulesExecutorContainer.INSTANCE.size();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    List<RulesExecutor> live = new ArrayList<>();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_RULES);
+                        assertSame( rulesExecutor, RulesExecutorContainer.INSTANCE.get(rulesExecutor.getId()) );
+                        assertEquals( 1, rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" ).size() );
+                        live.add(rulesExecutor);
+
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            RulesExecutor disposed = live.remove(ThreadLocalRandom.current().nextInt(live.size()));
+                            disposed.dispose();
+                            assertNull( RulesExecutorContainer.INSTANCE.get(disposed.getId()) );
+                            assertFalse( disposed.dispose() );
+                        }
+                        RulesExecutorContainer.INSTANCE.getAll();
+                    }
+                    live.forEach(RulesExecutor::dispose);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals( initialSize, RulesExecutorContainer.INSTANCE.size() );
+    }
+
+    @Test
+    public void testDisposeAll() {
+        int initialSize = RulesExecutorContainer.INSTANCE.size();
+        for (int i = 0; i < 10; i++) {
+            RulesExecutor.createFromYaml(YAML_RULES);
+        }
+        assertEquals( initialSize + 10, RulesExecutorContainer.INSTANCE.size() );
+        assertEquals( initialSize + 10, RulesExecutorContainer.INSTANCE.disposeAll() );
+        assertEquals( 0, RulesExecutorContainer.INSTANCE.size() );
+    }
+}
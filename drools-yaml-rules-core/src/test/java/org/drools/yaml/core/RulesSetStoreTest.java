@@ -0,0 +1,134 @@
+package org.drools.yaml.core;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.yaml.core.domain.RulesSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RulesSetStoreTest {
+
+    private static final String JSON_RULES =
+            "{\n" +
+            "  \"name\": \"Stored rules\",\n" +
+            "  \"host_rules\": [\n" +
+            "    {\n" +
+            "      \"name\": \"STORED_R1\",\n" +
+            "      \"condition\": {\n" +
+            "        \"all\": [\n" +
+            "          \"sensu.data.i == 1\",\n" +
+            "          { \"any\": [ \"j in [1, 2]\", \"k == \\\"a\\\"\" ] }\n" +
+            "        ]\n" +
+            "      },\n" +
+            "      \"action\": {\n" +
+            "        \"assert_fact\": {\n" +
+            "          \"ruleset\": \"Stored rules\",\n" +
+            "          \"fact\": {\n" +
+            "            \"m\": 1\n" +
+            "          }\n" +
+            "        }\n" +
+            "      }\n" +
+            "    },\n" +
+            "    {\n" +
+            "      \"name\": \"STORED_R2\",\n" +
+            "      \"condition\": \"m == 1\",\n" +
+            "      \"action\": {\n" +
+            "        \"run_playbook\": [\n" +
+            "          {\n" +
+            "            \"name\": \"hello_playbook.yml\"\n" +
+            "          }\n" +
+            "        ]\n" +
+            "      }\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    public void enableStore() {
+        RulesSetStore.INSTANCE.setDirectory(root);
+    }
+
+    @AfterEach
+    public void disableStore() {
+        RulesSetStore.INSTANCE.setDirectory(null);
+    }
+
+    @Test
+    public void testStoreWhileInUse() {
+        RulesSet rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, JSON_RULES);
+        String hash = KieBaseCache.canonicalHash(rulesSet);
+        Path file = root.resolve(RulesSetStore.ENGINE_VERSION).resolve(hash + ".json");
+
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(rulesSet);
+        assertTrue( Files.exists(file) );
+
+        List<RulesSet> stored = RulesSetStore.INSTANCE.load();
+        assertEquals( 1, stored.size() );
+        assertEquals( hash, KieBaseCache.canonicalHash(stored.get(0)) );
+
+        rulesExecutor.dispose();
+        assertFalse( Files.exists(file) );
+        assertEquals( 0, RulesSetStore.INSTANCE.load().size() );
+    }
+
+    @Test
+    public void testPreload() {
+        RulesSet rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, JSON_RULES);
+        assertTrue( RulesSetStore.INSTANCE.store(KieBaseCache.canonicalHash(rulesSet), rulesSet) );
+
+        int cachedKieBases = KieBaseCache.INSTANCE.size();
+        RulesSet stored = RulesSetStore.INSTANCE.load().get(0);
+        KieBaseCache.CachedKieBase preloaded = KieBaseCache.INSTANCE.preload(stored);
+        assertEquals( cachedKieBases + 1, KieBaseCache.INSTANCE.size() );
+
+        // the executor gets the preloaded KieBase, that is then released as soon as the executor is disposed
+        RulesExecutor rulesExecutor = RulesExecutor.createFromJson(JSON_RULES);
+        assertEquals( cachedKieBases + 1, KieBaseCache.INSTANCE.size() );
+        assertSame( preloaded.getKieBase(), KieBaseCache.INSTANCE.acquire(rulesSet).getKieBase() );
+        KieBaseCache.INSTANCE.release(preloaded);
+        assertEquals( 2, rulesExecutor.execute( "{ \"sensu\": { \"data\": { \"i\":1 } }, \"k\": \"a\" }" ) );
+
+        rulesExecutor.dispose();
+        assertEquals( cachedKieBases, KieBaseCache.INSTANCE.size() );
+        assertEquals( 0, RulesSetStore.INSTANCE.load().size() );
+    }
+
+    @Test
+    public void testEvictUnclaimedPreloads() {
+        RulesSet rulesSet = RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, JSON_RULES);
+        assertTrue( RulesSetStore.INSTANCE.store(KieBaseCache.canonicalHash(rulesSet), rulesSet) );
+
+        int cachedKieBases = KieBaseCache.INSTANCE.size();
+        KieBaseCache.INSTANCE.preload(RulesSetStore.INSTANCE.load().get(0));
+        assertEquals( 0, KieBaseCache.INSTANCE.evictUnclaimedPreloads(1, TimeUnit.HOURS) );
+        assertEquals( cachedKieBases + 1, KieBaseCache.INSTANCE.size() );
+
+        // no executor used the preloaded KieBase, so both it and its rules set in the store are removed
+        assertEquals( 1, KieBaseCache.INSTANCE.evictUnclaimedPreloads(0, TimeUnit.MILLISECONDS) );
+        assertEquals( cachedKieBases, KieBaseCache.INSTANCE.size() );
+        assertEquals( 0, RulesSetStore.INSTANCE.load().size() );
+
+        // a preloaded KieBase already used by an executor is not evicted
+        KieBaseCache.INSTANCE.preload(rulesSet);
+        RulesExecutor rulesExecutor = RulesExecutor.createFromJson(JSON_RULES);
+        assertEquals( 0, KieBaseCache.INSTANCE.evictUnclaimedPreloads(0, TimeUnit.MILLISECONDS) );
+        assertEquals( 1, RulesSetStore.INSTANCE.load().size() );
+
+        rulesExecutor.dispose();
+        assertEquals( cachedKieBases, KieBaseCache.INSTANCE.size() );
+        assertEquals( 0, RulesSetStore.INSTANCE.load().size() );
+    }
+}
@@ -0,0 +1,64 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.Map;
+
+import org.drools.yaml.core.domain.RuleMatch;
+import org.drools.yaml.core.rulesmodel.ArrayBasedFact;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaTest {
+
+    private static final String YAML_WITH_SCHEMA =
+            "  sources:\n" +
+            "    - name: sensu\n" +
+            "      schema: \"sensu.data.i: long, sensu.data.temp: double, sensu.host: string, sensu.ok: boolean\"\n" +
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition: sensu.data.i == 1\n" +
+            "    - name: R2\n" +
+            "      condition: sensu.data.temp > 37.5\n" +
+            "    - name: R3\n" +
+            "      condition:\n" +
+            "        all:\n" +
+            "          - sensu.host == \"localhost\"\n" +
+            "          - sensu.ok == false\n" +
+            "    - name: R4\n" +
+            "      condition: sensu.data.i != 1\n" +
+            "    - name: R5\n" +
+            "      condition: other.field == \"x\"\n";
+
+    @Test
+    public void testProcessWithSchema() {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_WITH_SCHEMA);
+
+        List<Match> matchedRules = rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1, \"temp\": 38 } } }" );
+        assertEquals( 2, matchedRules.size() );
+        assertTrue( matchedRules.get(0).getObjects().get(0) instanceof ArrayBasedFact );
+
+        RuleMatch ruleMatch = RuleMatch.from( matchedRules.stream().filter(m -> m.getRule().getName().equals("R1")).findFirst().get() );
+        Map<String, Object> data = (Map<String, Object>) ((Map<String, Object>) ruleMatch.getFacts().get("sensu")).get("data");
+        assertEquals( 1L, data.get("i") );
+        assertEquals( 38.0, data.get("temp") );
+
+        matchedRules = rulesExecutor.process( "{ \"sensu\": { \"host\": \"localhost\", \"ok\": false } }" );
+        assertEquals( 2, matchedRules.size() ); // R3 and R4 since sensu.data.i is missing
+
+        matchedRules = rulesExecutor.process( "{ \"other\": { \"field\": \"x\" } }" );
+        assertEquals( 2, matchedRules.size() ); // R4 and R5 on a field not declared in the schema
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testInvalidValueForSchema() {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(YAML_WITH_SCHEMA);
+        assertThrows( IllegalArgumentException.class, () -> rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":\"one\" } } }" ) );
+        rulesExecutor.dispose();
+    }
+}
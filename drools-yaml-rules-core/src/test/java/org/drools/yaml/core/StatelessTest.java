@@ -0,0 +1,91 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.Map;
+
+import org.drools.yaml.core.domain.RuleMatch;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatelessTest {
+
+    private static final String STATELESS_RULES =
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition: sensu.data.i == 1\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n" +
+            "    - name: R2\n" +
+            "      condition:\n" +
+            "        any:\n" +
+            "          - sensu.data.i == 2\n" +
+            "          - sensu.data.j == 2\n" +
+            "      action:\n" +
+            "        run_playbook:\n" +
+            "          - name: hello_playbook.yml\n";
+
+    private static final String JOIN_RULES =
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition:\n" +
+            "        all:\n" +
+            "          - sensu.data.i == 1\n" +
+            "          - sensu.data.j == 1\n";
+
+    private static final String ASSERT_RULES =
+            "  host_rules:\n" +
+            "    - name: R1\n" +
+            "      condition: sensu.data.i == 1\n" +
+            "      action:\n" +
+            "        assert_fact:\n" +
+            "          ruleset: Test rules4\n" +
+            "          fact:\n" +
+            "            j: 1\n";
+
+    @Test
+    public void testStatelessRulesSet() {
+        RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(STATELESS_RULES);
+        assertTrue( rulesExecutor.isStateless() );
+
+        List<Match> matches = rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+        assertEquals( 1, matches.size() );
+        assertEquals( "R1", matches.get(0).getRule().getName() );
+        // the match is still readable after its fact has been deleted from the working memory
+        RuleMatch ruleMatch = RuleMatch.from(matches.get(0));
+        assertEquals( Map.of("data", Map.of("i", 1)), ruleMatch.getFacts().get("sensu") );
+        assertEquals( 0, rulesExecutor.factsCount() );
+
+        assertEquals( List.of(1, 1), rulesExecutor.executeBatch( List.<Map<String, Object>>of(
+                Map.of("sensu", Map.of("data", Map.of("i", 2))),
+                Map.of("sensu", Map.of("data", Map.of("j", 2)))).iterator() ) );
+        assertEquals( 0, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testStatefulRulesSets() {
+        for (String rules : List.of(JOIN_RULES, ASSERT_RULES)) {
+            RulesExecutor rulesExecutor = RulesExecutor.createFromYaml(rules);
+            assertFalse( rulesExecutor.isStateless() );
+            rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+            assertTrue( rulesExecutor.factsCount() > 0 );
+            rulesExecutor.dispose();
+        }
+    }
+
+    @Test
+    public void testKillSwitch() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(
+                RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.YAML, STATELESS_RULES), ExecutorOptions.DEFAULT.withStateless(false));
+        assertFalse( rulesExecutor.isStateless() );
+        rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\":1 } } }" );
+        assertEquals( 1, rulesExecutor.factsCount() );
+        rulesExecutor.dispose();
+    }
+}
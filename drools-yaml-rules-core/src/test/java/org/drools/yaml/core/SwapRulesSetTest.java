@@ -0,0 +1,160 @@
+package org.drools.yaml.core;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import org.drools.yaml.core.domain.RulesSet;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SwapRulesSetTest {
+
+    private static final String JSON_RULES_V1 =
+            "{\n" +
+            "  \"host_rules\": [\n" +
+            "    {\n" +
+            "      \"name\": \"SWAP_R1\",\n" +
+            "      \"condition\": \"i == 1\",\n" +
+            "      \"action\": {\n" +
+            "        \"run_playbook\": [\n" +
+            "          {\n" +
+            "            \"name\": \"hello_playbook.yml\"\n" +
+            "          }\n" +
+            "        ]\n" +
+            "      }\n" +
+            "    },\n" +
+            "    {\n" +
+            "      \"name\": \"SWAP_R2\",\n" +
+            "      \"condition\": \"i == 2\",\n" +
+            "      \"action\": {\n" +
+            "        \"run_playbook\": [\n" +
+            "          {\n" +
+            "            \"name\": \"hello_playbook.yml\"\n" +
+            "          }\n" +
+            "        ]\n" +
+            "      }\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    // SWAP_R1 is unchanged, SWAP_R2 is changed and SWAP_R3 is new
+    private static final String JSON_RULES_V2 = JSON_RULES_V1
+            .replace("\"i == 2\"", "\"i == 3\"")
+            .replace("  ]\n}",
+                    "    ,{\n" +
+                    "      \"name\": \"SWAP_R3\",\n" +
+                    "      \"condition\": \"j == 1\",\n" +
+                    "      \"action\": {\n" +
+                    "        \"run_playbook\": [\n" +
+                    "          {\n" +
+                    "            \"name\": \"hello_playbook.yml\"\n" +
+                    "          }\n" +
+                    "        ]\n" +
+                    "      }\n" +
+                    "    }\n" +
+                    "  ]\n}");
+
+    private static final String JSON_RULES_V3 =
+            "{\n" +
+            "  \"sources\": [\n" +
+            "    {\n" +
+            "      \"name\": \"sensu\",\n" +
+            "      \"schema\": \"sensu.data.i: long\"\n" +
+            "    }\n" +
+            "  ],\n" +
+            "  \"host_rules\": [\n" +
+            "    {\n" +
+            "      \"name\": \"SWAP_R4\",\n" +
+            "      \"condition\": \"sensu.data.i > 0\",\n" +
+            "      \"action\": {\n" +
+            "        \"run_playbook\": [\n" +
+            "          {\n" +
+            "            \"name\": \"hello_playbook.yml\"\n" +
+            "          }\n" +
+            "        ]\n" +
+            "      }\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    // these rules sets don't need a working memory, so their executors would not keep any fact to be moved
+    private static final ExecutorOptions KEEP_FACTS = ExecutorOptions.DEFAULT.withStateless(false);
+
+    private static RulesSet rulesSet(String json) {
+        return RuleNotation.CoreNotation.INSTANCE.toRulesSet(RuleFormat.JSON, json);
+    }
+
+    @Test
+    public void testSwapKeepsFacts() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(rulesSet(JSON_RULES_V1), KEEP_FACTS);
+
+        assertEquals( List.of("SWAP_R1"), matchedRules( rulesExecutor.process( "{ \"i\": 1 }" ) ) );
+        assertEquals( List.of(), matchedRules( rulesExecutor.process( "{ \"i\": 3 }" ) ) );
+        assertEquals( List.of(), matchedRules( rulesExecutor.process( "{ \"j\": 1 }" ) ) );
+
+        SwapResult result = rulesExecutor.swapRulesSet(rulesSet(JSON_RULES_V2)).join();
+        assertEquals( 3, result.getMigrated_facts() );
+        assertEquals( 3, rulesExecutor.rulesCount() );
+
+        // only the changed and the new rules fire on the facts that were already there
+        assertEquals( List.of("SWAP_R2", "SWAP_R3"), matchedRules( rulesExecutor.process( "{ \"i\": 4 }" ) ) );
+        assertEquals( List.of("SWAP_R1"), matchedRules( rulesExecutor.process( "{ \"i\": 1 }" ) ) );
+        assertEquals( 5, rulesExecutor.factsCount() );
+
+        // the facts are moved also when the layout of the facts of the new rules set is different
+        rulesExecutor.swapRulesSet(rulesSet(JSON_RULES_V3)).join();
+        assertEquals( List.of("SWAP_R4"), matchedRules( rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\": 1 } } }" ) ) );
+        assertEquals( 6, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+        CompletionException e = assertThrows( CompletionException.class, () -> rulesExecutor.swapRulesSet(rulesSet(JSON_RULES_V1)).join() );
+        assertTrue( e.getCause() instanceof IllegalStateException );
+    }
+
+    @Test
+    public void testFactsInsertedWhileSwappingAreNotLost() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(rulesSet(JSON_RULES_V1), KEEP_FACTS);
+
+        CompletableFuture<SwapResult> swap = rulesExecutor.swapRulesSet(rulesSet(JSON_RULES_V2));
+        int inserted = 0;
+        do {
+            rulesExecutor.process( "{ \"k\": " + inserted++ + " }" );
+        } while (!swap.isDone());
+        swap.join();
+        rulesExecutor.process( "{ \"k\": " + inserted++ + " }" );
+
+        assertEquals( inserted, rulesExecutor.factsCount() );
+        assertEquals( List.of("SWAP_R3"), matchedRules( rulesExecutor.process( "{ \"j\": 1 }" ) ) );
+
+        rulesExecutor.dispose();
+    }
+
+    @Test
+    public void testSwapToIncompatibleSchema() {
+        RulesExecutor rulesExecutor = RulesExecutor.createRulesExecutor(rulesSet(JSON_RULES_V1), KEEP_FACTS);
+        int cachedKieBases = KieBaseCache.INSTANCE.size();
+
+        rulesExecutor.process( "{ \"sensu\": { \"data\": { \"i\": \"abc\" } } }" );
+        assertEquals( List.of("SWAP_R1"), matchedRules( rulesExecutor.process( "{ \"i\": 1 }" ) ) );
+
+        // the first fact can't be converted to the schema of the new rules set, so the executor keeps the previous one
+        CompletionException e = assertThrows( CompletionException.class, () -> rulesExecutor.swapRulesSet(rulesSet(JSON_RULES_V3)).join() );
+        assertTrue( e.getCause() instanceof IllegalArgumentException );
+        assertEquals( cachedKieBases, KieBaseCache.INSTANCE.size() );
+        assertEquals( 2, rulesExecutor.factsCount() );
+        assertEquals( List.of("SWAP_R2"), matchedRules( rulesExecutor.process( "{ \"i\": 2 }" ) ) );
+        assertEquals( 3, rulesExecutor.factsCount() );
+
+        rulesExecutor.dispose();
+    }
+
+    private static List<String> matchedRules(List<Match> matches) {
+        return matches.stream().map(m -> m.getRule().getName()).sorted().collect(Collectors.toList());
+    }
+}
@@ -5,8 +5,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.drools.model.Index.ConstraintType;
 import org.drools.yaml.core.domain.Rule;
 import org.drools.yaml.core.domain.conditions.Condition;
+import org.drools.yaml.core.rulesmodel.ParsedCondition;
 
 public class DurableRule {
     private List<Map<String,?>> all;
@@ -108,7 +110,7 @@ public class DurableRule {
                             .map( m -> mapValueToCondition(binding, m)).collect(Collectors.toList()) );
         }
 
-        return new Condition(entry.getKey() + " == " + toRightValue(entry.getValue()), binding);
+        return new Condition(ParsedCondition.of(entry.getKey(), ConstraintType.EQUAL, entry.getValue()), binding);
     }
 
     private Condition.Type decodeConditionType(String type) {
@@ -132,48 +134,49 @@ public class DurableRule {
         Map.Entry<String, ?> e = value.entrySet().iterator().next();
 
         if ( key != null && isOperator(key) ) {
-            return createOperatorCondition(binding, e.getKey(), key, toRightValue(e.getValue()));
+            return createOperatorCondition(binding, e.getKey(), key, e.getValue());
         }
 
         String leftValue = key != null ? (key + "." + e.getKey()) : e.getKey();
-        return new Condition(leftValue + " == " + toRightValue(e.getValue()), binding);
+        return new Condition(ParsedCondition.of(leftValue, ConstraintType.EQUAL, e.getValue()), binding);
     }
 
-    private Condition createOperatorCondition(String binding, String leftValue, String operator, String rightValue) {
-        String decodedOp;
+    private Condition createOperatorCondition(String binding, String leftValue, String operator, Object rightValue) {
+        ConstraintType decodedOp;
         switch (operator) {
             case "$neq":
                 return new Condition(
-                        new Condition(leftValue + " != null", binding),
-                        new Condition(leftValue + " != " + rightValue, binding));
+                        new Condition(ParsedCondition.of(leftValue, ConstraintType.NOT_EQUAL, null), binding),
+                        new Condition(ParsedCondition.of(leftValue, ConstraintType.NOT_EQUAL, rightValue), binding));
             case "$ex":
-                return new Condition(leftValue + " != null", binding);
+                return new Condition(ParsedCondition.of(leftValue, ConstraintType.NOT_EQUAL, null), binding);
             case "$nex":
-                return new Condition(leftValue + " == null", binding);
+                return new Condition(ParsedCondition.of(leftValue, ConstraintType.EQUAL, null), binding);
             case "$eq":
-                decodedOp = "==";
+            case "$in":
+                decodedOp = ConstraintType.EQUAL;
+                break;
+            case "$nin":
+                decodedOp = ConstraintType.NOT_EQUAL;
                 break;
             case "$lt":
-                decodedOp = "<";
+                decodedOp = ConstraintType.LESS_THAN;
                 break;
             case "$gt":
-                decodedOp = ">";
+                decodedOp = ConstraintType.GREATER_THAN;
                 break;
             case "$lte":
-                decodedOp = "<=";
+                decodedOp = ConstraintType.LESS_OR_EQUAL;
                 break;
             case "$gte":
-                decodedOp = ">=";
+                decodedOp = ConstraintType.GREATER_OR_EQUAL;
                 break;
             default:
                 throw new UnsupportedOperationException("Unrecongnized operator " + operator);
         }
 
-        return new Condition(leftValue + " " + decodedOp + " " + rightValue, binding);
-    }
-
-    private String toRightValue(Object value) {
-        return value instanceof String ? "\"" + value + "\"" : "" + value;
+        // a list of values, as the one of $in and $nin, creates a set membership condition
+        return new Condition(ParsedCondition.of(leftValue, decodedOp, rightValue), binding);
     }
 
     private boolean isOperator(String operator) {
@@ -4,8 +4,10 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 
+import org.drools.yaml.core.ExecutorOptions;
 import org.drools.yaml.core.domain.RulesSet;
 import org.drools.yaml.durable.domain.DurableRules;
 
@@ -17,7 +19,7 @@ public class CreateRulesExecutorDurableEndpoint {
     @POST()
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public long executeQuery(DurableRules durableRules) {
-        return createRulesExecutor(durableRules.toRulesSet()).getId();
+    public long executeQuery(@QueryParam("profile") boolean profile, DurableRules durableRules) {
+        return createRulesExecutor(durableRules.toRulesSet(), profile ? ExecutorOptions.DEFAULT.withProfiling() : ExecutorOptions.DEFAULT).getId();
     }
 }
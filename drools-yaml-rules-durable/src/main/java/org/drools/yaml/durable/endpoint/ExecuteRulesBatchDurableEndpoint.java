@@ -0,0 +1,25 @@
+package org.drools.yaml.durable.endpoint;
+
+import java.io.InputStream;
+import java.util.List;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.drools.yaml.core.RulesExecutorContainer;
+
+import static org.drools.yaml.core.endpoint.ProcessFactsBatchEndpoint.APPLICATION_NDJSON;
+
+@Path("/rules-durable-executors/{id}/execute-batch")
+public class ExecuteRulesBatchDurableEndpoint {
+
+    @POST()
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    public List<Integer> executeQuery(@PathParam("id") long id, InputStream facts) {
+        return RulesExecutorContainer.INSTANCE.getOrThrow(id).executeBatch(facts);
+    }
+}
@@ -1,6 +1,6 @@
 package org.drools.yaml.durable.endpoint;
 
-import java.util.Map;
+import java.io.InputStream;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -16,7 +16,7 @@ public class ExecuteRulesDurableEndpoint {
     @POST()
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public int executeQuery(@PathParam("id") long id, Map<String, Object> factMap) {
-        return RulesExecutorContainer.INSTANCE.get(id).execute(factMap);
+    public int executeQuery(@PathParam("id") long id, InputStream facts) {
+        return RulesExecutorContainer.INSTANCE.getOrThrow(id).execute(facts);
     }
 }
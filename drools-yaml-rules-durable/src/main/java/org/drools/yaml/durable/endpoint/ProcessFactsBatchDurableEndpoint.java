@@ -0,0 +1,30 @@
+package org.drools.yaml.durable.endpoint;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.drools.yaml.core.RulesExecutorContainer;
+import org.drools.yaml.durable.domain.DurableRuleMatch;
+
+import static org.drools.yaml.core.endpoint.ProcessFactsBatchEndpoint.APPLICATION_NDJSON;
+
+@Path("/rules-durable-executors/{id}/process-batch")
+public class ProcessFactsBatchDurableEndpoint {
+
+    @POST()
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    public List<List<Map<String, Map>>> executeQuery(@PathParam("id") long id, InputStream facts) {
+        return RulesExecutorContainer.INSTANCE.getOrThrow(id).processBatch(facts).stream()
+                .map(matches -> matches.stream().map(DurableRuleMatch::from).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+}
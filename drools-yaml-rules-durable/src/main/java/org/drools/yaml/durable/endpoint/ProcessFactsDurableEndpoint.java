@@ -1,5 +1,6 @@
 package org.drools.yaml.durable.endpoint;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -20,8 +21,8 @@ public class ProcessFactsDurableEndpoint {
     @POST()
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public List<Map<String, Map>> executeQuery(@PathParam("id") long id, Map<String, Object> factMap) {
-        return RulesExecutorContainer.INSTANCE.get(id).process(factMap).stream()
+    public List<Map<String, Map>> executeQuery(@PathParam("id") long id, InputStream facts) {
+        return RulesExecutorContainer.INSTANCE.getOrThrow(id).process(facts).stream()
                 .map(DurableRuleMatch::from).collect(Collectors.toList());
     }
 }
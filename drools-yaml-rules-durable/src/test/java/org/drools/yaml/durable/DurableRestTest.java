@@ -16,6 +16,8 @@
 package org.drools.yaml.durable;
 
 
+import java.util.List;
+
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
@@ -182,4 +184,17 @@ public class DurableRestTest {
                 .statusCode(200)
                 .body(is("[]"));
     }
+
+    @Test
+    public void testUnknownExecutor() {
+        for (String request : List.of("process", "execute", "process-batch", "execute-batch")) {
+            given()
+                    .body( "{ \"j\":1 }" )
+                    .contentType(ContentType.JSON)
+                    .when()
+                    .post("/rules-durable-executors/-1/" + request)
+                    .then()
+                    .statusCode(404);
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package org.drools.yaml.durable;
+
+import java.util.List;
+
+import org.drools.yaml.core.RulesExecutor;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.rule.Match;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DurableSetMembershipTest {
+
+    @Test
+    public void testProcessWithIn() {
+        String jsonRule = "{ \"rules\": {\"r_0\": {\"all\": [{\"m\": {\"$in\": {\"nested.i\" : [1, 2]}}}]}, \"r_1\": {\"all\": [{\"m\": {\"$nin\": {\"nested.s\" : [\"a\", \"b\"]}}}]}}}";
+
+        RulesExecutor rulesExecutor = RulesExecutor.createFromJson(DurableNotation.INSTANCE, jsonRule);
+
+        List<Match> matchedRules = rulesExecutor.process( "{ \"nested\": { \"i\": 2, \"s\": \"a\" } }" );
+        assertEquals( 1, matchedRules.size() );
+        assertEquals( "r_0", matchedRules.get(0).getRule().getName() );
+
+        matchedRules = rulesExecutor.process( "{ \"nested\": { \"i\": 3, \"s\": \"c\" } }" );
+        assertEquals( 1, matchedRules.size() );
+        assertEquals( "r_1", matchedRules.get(0).getRule().getName() );
+    }
+}